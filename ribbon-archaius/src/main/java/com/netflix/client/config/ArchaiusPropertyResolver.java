@@ -8,18 +8,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * {@link PropertyResolver} backed by Archaius' {@link ConfigurationManager}.
+ * <p>
+ * Property names are kept in a sorted index that is updated from configuration events, so that
+ * {@link #forEach(String, BiConsumer)} only visits the properties under the prefix instead of scanning
+ * the whole configuration.
+ */
 public class ArchaiusPropertyResolver implements PropertyResolver {
     private static final Logger LOG = LoggerFactory.getLogger(ArchaiusPropertyResolver.class);
 
     public static final ArchaiusPropertyResolver INSTANCE = new ArchaiusPropertyResolver();
     private final AbstractConfiguration config;
     private final CopyOnWriteArrayList<Runnable> actions = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<Consumer<Set<String>>> propertiesChangedActions = new CopyOnWriteArrayList<>();
+    private final NavigableSet<String> propertyNames = new ConcurrentSkipListSet<>();
 
     private ArchaiusPropertyResolver() {
         this.config = ConfigurationManager.getConfigInstance();
@@ -28,10 +43,41 @@ public class ArchaiusPropertyResolver implements PropertyResolver {
             @Override
             public void configurationChanged(ConfigurationEvent event) {
                 if (!event.isBeforeUpdate()) {
+                    updatePropertyNames(event.getPropertyName());
                     actions.forEach(ArchaiusPropertyResolver::invokeAction);
+                    // Events such as clearing the whole configuration have no property name
+                    final Set<String> names = event.getPropertyName() == null
+                            ? null
+                            : Collections.singleton(event.getPropertyName());
+                    propertiesChangedActions.forEach(action -> invokeAction(() -> action.accept(names)));
                 }
             }
         });
+
+        rebuildPropertyNames();
+    }
+
+    /**
+     * Events are not always a reliable indication of what happened to the property (e.g. a composite configuration
+     * may still have the property after clearing it from one of its children) so the index is refreshed from the
+     * current state of the configuration.
+     */
+    private void updatePropertyNames(String name) {
+        if (name == null) {
+            rebuildPropertyNames();
+        } else if (config.containsKey(name)) {
+            propertyNames.add(name);
+        } else {
+            propertyNames.remove(name);
+        }
+    }
+
+    private void rebuildPropertyNames() {
+        Iterator<String> keys = config.getKeys();
+        while (keys.hasNext()) {
+            propertyNames.add(keys.next());
+        }
+        propertyNames.removeIf(name -> !config.containsKey(name));
     }
 
     private static void invokeAction(Runnable action) {
@@ -73,13 +119,14 @@ public class ArchaiusPropertyResolver implements PropertyResolver {
 
     @Override
     public void forEach(String prefix, BiConsumer<String, String> consumer) {
-        Optional.ofNullable(config.subset(prefix))
-                .ifPresent(subconfig -> {
-                    subconfig.getKeys().forEachRemaining(key -> {
-                        String value = config.getString(prefix + "." + key);
-                        consumer.accept(key, value);
-                    });
-                });
+        // All names starting with "prefix." sort between "prefix." and "prefix/" since '/' follows '.'
+        final int keyStart = prefix.length() + 1;
+        for (String name : propertyNames.subSet(prefix + ".", prefix + "/")) {
+            String value = config.getString(name);
+            if (value != null) {
+                consumer.accept(name.substring(keyStart), value);
+            }
+        }
     }
 
     @Override
@@ -87,7 +134,12 @@ public class ArchaiusPropertyResolver implements PropertyResolver {
         actions.add(action);
     }
 
+    @Override
+    public void onPropertiesChanged(Consumer<Set<String>> action) {
+        propertiesChangedActions.add(action);
+    }
+
     public int getActionCount() {
-        return actions.size();
+        return actions.size() + propertiesChangedActions.size();
     }
 }
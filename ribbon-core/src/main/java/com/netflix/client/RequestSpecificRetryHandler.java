@@ -71,6 +71,11 @@ public class RequestSpecificRetryHandler implements RetryHandler {
         return fallback.isCircuitTrippingException(e);
     }
 
+    @Override
+    public boolean isCircuitTrippingResponse(Object response) {
+        return fallback.isCircuitTrippingResponse(response);
+    }
+
     @Override
     public int getMaxRetriesOnSameServer() {
         if (retrySameServer >= 0) {
@@ -48,6 +48,14 @@ public interface RetryHandler {
      * load balancer will also close the circuit upon getting such exception.
      */
     public boolean isCircuitTrippingException(Throwable e);
+
+    /**
+     * Test if a response received from the server should be treated as circuit failure,
+     * for example a 5xx HTTP response. Defaults to false.
+     */
+    public default boolean isCircuitTrippingResponse(Object response) {
+        return false;
+    }
         
     /**
      * @return Number of maximal retries to be done on one server
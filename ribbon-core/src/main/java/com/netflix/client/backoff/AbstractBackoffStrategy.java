@@ -0,0 +1,79 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.client.backoff;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.netflix.client.IClientConfigAware;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.client.config.Property;
+
+/**
+ * Base class for backoff strategies that grow from a base interval ({@link CommonClientConfigKey#BackoffInterval})
+ * and never exceed a cap ({@link CommonClientConfigKey#MaxBackoffInterval}). Both are read from the client
+ * configuration on every call, so changes take effect without recreating the client.
+ */
+public abstract class AbstractBackoffStrategy implements BackoffStrategy, IClientConfigAware {
+
+    private static final int MAX_EXPONENT = 30;
+
+    private volatile Property<Integer> baseMillis;
+    private volatile Property<Integer> capMillis;
+
+    protected AbstractBackoffStrategy() {
+        this(CommonClientConfigKey.BackoffInterval.defaultValue(), CommonClientConfigKey.MaxBackoffInterval.defaultValue());
+    }
+
+    protected AbstractBackoffStrategy(int baseMillis, int capMillis) {
+        this.baseMillis = Property.of(baseMillis);
+        this.capMillis = Property.of(capMillis);
+    }
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        baseMillis = clientConfig.getDynamicProperty(CommonClientConfigKey.BackoffInterval);
+        capMillis = clientConfig.getDynamicProperty(CommonClientConfigKey.MaxBackoffInterval);
+    }
+
+    public int getBaseMillis() {
+        return Math.max(0, baseMillis.getOrDefault());
+    }
+
+    public int getCapMillis() {
+        return Math.max(0, capMillis.getOrDefault());
+    }
+
+    /**
+     * @return base * 2^retryCount, capped
+     */
+    protected int exponential(int retryCount) {
+        int exponent = Math.min(Math.max(retryCount, 0), MAX_EXPONENT);
+        return (int) Math.min(getCapMillis(), (long) getBaseMillis() << exponent);
+    }
+
+    /**
+     * @return a uniformly distributed random value between low and high, both inclusive
+     */
+    protected static int random(int low, int high) {
+        if (high <= low) {
+            return low;
+        }
+        return low + ThreadLocalRandom.current().nextInt(high - low + 1);
+    }
+}
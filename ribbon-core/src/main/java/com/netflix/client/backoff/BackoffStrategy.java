@@ -0,0 +1,33 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.client.backoff;
+
+/**
+ * Computes how long to wait before retrying a request. Implementations are selected per client with
+ * {@link com.netflix.client.config.CommonClientConfigKey#BackoffStrategyClassName} and must be thread safe;
+ * any state that belongs to a single request is passed in by the caller.
+ */
+public interface BackoffStrategy {
+
+    /**
+     * @param retryCount number of retries of the request so far, 0 for the first retry
+     * @param previousBackoffMillis the backoff returned for the previous retry of the same request, 0 for the first retry
+     * @return the time to wait before the next retry in milliseconds
+     */
+    int getBackoffMillis(int retryCount, int previousBackoffMillis);
+}
@@ -0,0 +1,40 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.client.backoff;
+
+/**
+ * Waits a random time between the base interval and three times the previous backoff, up to the cap. The backoff
+ * grows with the previous one rather than with the retry count, which decorrelates clients that started retrying
+ * at the same time.
+ */
+public class DecorrelatedJitterBackoffStrategy extends AbstractBackoffStrategy {
+
+    public DecorrelatedJitterBackoffStrategy() {
+    }
+
+    public DecorrelatedJitterBackoffStrategy(int baseMillis, int capMillis) {
+        super(baseMillis, capMillis);
+    }
+
+    @Override
+    public int getBackoffMillis(int retryCount, int previousBackoffMillis) {
+        int base = getBaseMillis();
+        long high = Math.max(base, 3L * Math.max(previousBackoffMillis, base));
+        return Math.min(getCapMillis(), random(base, (int) Math.min(Integer.MAX_VALUE - 1, high)));
+    }
+}
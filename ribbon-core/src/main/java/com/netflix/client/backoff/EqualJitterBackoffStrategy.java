@@ -0,0 +1,38 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.client.backoff;
+
+/**
+ * Waits half of the capped exponential backoff plus a random time up to the other half, so that every retry
+ * waits at least half of the exponential backoff.
+ */
+public class EqualJitterBackoffStrategy extends AbstractBackoffStrategy {
+
+    public EqualJitterBackoffStrategy() {
+    }
+
+    public EqualJitterBackoffStrategy(int baseMillis, int capMillis) {
+        super(baseMillis, capMillis);
+    }
+
+    @Override
+    public int getBackoffMillis(int retryCount, int previousBackoffMillis) {
+        int half = exponential(retryCount) / 2;
+        return half + random(0, half);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.client.backoff;
+
+/**
+ * Waits base * 2^n before the n-th retry, up to the cap, without any randomization. This is the default strategy.
+ */
+public class ExponentialBackoffStrategy extends AbstractBackoffStrategy {
+
+    public ExponentialBackoffStrategy() {
+    }
+
+    public ExponentialBackoffStrategy(int baseMillis, int capMillis) {
+        super(baseMillis, capMillis);
+    }
+
+    @Override
+    public int getBackoffMillis(int retryCount, int previousBackoffMillis) {
+        return exponential(retryCount);
+    }
+}
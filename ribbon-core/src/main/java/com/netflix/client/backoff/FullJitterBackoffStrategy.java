@@ -0,0 +1,37 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.client.backoff;
+
+/**
+ * Waits a random time between 0 and the capped exponential backoff. Spreads retries of many clients the most,
+ * at the cost of some retries happening almost immediately.
+ */
+public class FullJitterBackoffStrategy extends AbstractBackoffStrategy {
+
+    public FullJitterBackoffStrategy() {
+    }
+
+    public FullJitterBackoffStrategy(int baseMillis, int capMillis) {
+        super(baseMillis, capMillis);
+    }
+
+    @Override
+    public int getBackoffMillis(int retryCount, int previousBackoffMillis) {
+        return random(0, exponential(retryCount));
+    }
+}
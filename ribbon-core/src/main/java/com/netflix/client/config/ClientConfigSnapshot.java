@@ -0,0 +1,91 @@
+package com.netflix.client.config;
+
+/**
+ * Immutable, typed view of the client configuration values that are read on every request.  Reading a field of the
+ * snapshot avoids the map lookups of {@link IClientConfig#get(IClientConfigKey)} on the request path.  Dynamic
+ * configurations build a new snapshot when any of their values change, see {@link IClientConfig#getSnapshot()}.
+ */
+public final class ClientConfigSnapshot {
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int maxAutoRetries;
+    private final int maxAutoRetriesNextServer;
+    private final boolean okToRetryOnAllOperations;
+    private final Boolean followRedirects;
+    private final boolean isSecure;
+    private final int maxConnectionsPerHost;
+    private final int maxTotalConnections;
+
+    private ClientConfigSnapshot(IClientConfig config) {
+        this.connectTimeout = config.getOrDefault(CommonClientConfigKey.ConnectTimeout);
+        this.readTimeout = config.getOrDefault(CommonClientConfigKey.ReadTimeout);
+        this.maxAutoRetries = config.getOrDefault(CommonClientConfigKey.MaxAutoRetries);
+        this.maxAutoRetriesNextServer = config.getOrDefault(CommonClientConfigKey.MaxAutoRetriesNextServer);
+        this.okToRetryOnAllOperations = config.getOrDefault(CommonClientConfigKey.OkToRetryOnAllOperations);
+        this.followRedirects = config.get(CommonClientConfigKey.FollowRedirects);
+        this.isSecure = config.get(CommonClientConfigKey.IsSecure, false);
+        this.maxConnectionsPerHost = config.getOrDefault(CommonClientConfigKey.MaxConnectionsPerHost);
+        this.maxTotalConnections = config.getOrDefault(CommonClientConfigKey.MaxTotalConnections);
+    }
+
+    /**
+     * @return Snapshot of the current values of config
+     */
+    public static ClientConfigSnapshot of(IClientConfig config) {
+        return new ClientConfigSnapshot(config);
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public int getMaxAutoRetries() {
+        return maxAutoRetries;
+    }
+
+    public int getMaxAutoRetriesNextServer() {
+        return maxAutoRetriesNextServer;
+    }
+
+    public boolean isOkToRetryOnAllOperations() {
+        return okToRetryOnAllOperations;
+    }
+
+    /**
+     * @return Whether to follow redirects, or null if not configured
+     */
+    public Boolean getFollowRedirects() {
+        return followRedirects;
+    }
+
+    public boolean isSecure() {
+        return isSecure;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
+    @Override
+    public String toString() {
+        return "ClientConfigSnapshot{" +
+                "connectTimeout=" + connectTimeout +
+                ", readTimeout=" + readTimeout +
+                ", maxAutoRetries=" + maxAutoRetries +
+                ", maxAutoRetriesNextServer=" + maxAutoRetriesNextServer +
+                ", okToRetryOnAllOperations=" + okToRetryOnAllOperations +
+                ", followRedirects=" + followRedirects +
+                ", isSecure=" + isSecure +
+                ", maxConnectionsPerHost=" + maxConnectionsPerHost +
+                ", maxTotalConnections=" + maxTotalConnections +
+                '}';
+    }
+}
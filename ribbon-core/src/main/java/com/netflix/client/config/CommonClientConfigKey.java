@@ -69,6 +69,10 @@ public abstract class CommonClientConfigKey<T> implements IClientConfigKey<T> {
     public static final IClientConfigKey<Float> MinPrimeConnectionsRatio = new CommonClientConfigKey<Float>("MinPrimeConnectionsRatio", 1.0f){};
     
     public static final IClientConfigKey<String> PrimeConnectionsURI = new CommonClientConfigKey<String>("PrimeConnectionsURI", "/"){};
+
+    public static final IClientConfigKey<Integer> PrimeConnectionsPerServer = new CommonClientConfigKey<Integer>("PrimeConnectionsPerServer", 0){};
+
+    public static final IClientConfigKey<Integer> MaxConcurrentPrimeConnections = new CommonClientConfigKey<Integer>("MaxConcurrentPrimeConnections", 10){};
     
     public static final IClientConfigKey<Integer> PoolMaxThreads = new CommonClientConfigKey<Integer>("PoolMaxThreads", 200){};
     
@@ -104,15 +108,59 @@ public abstract class CommonClientConfigKey<T> implements IClientConfigKey<T> {
     
     public static final IClientConfigKey<Integer> BackoffInterval = new CommonClientConfigKey<Integer>("BackoffTimeout", 0){};
     
+    public static final IClientConfigKey<Integer> MaxBackoffInterval = new CommonClientConfigKey<Integer>("MaxBackoffInterval", 60 * 1000){};
+    
+    public static final IClientConfigKey<String> BackoffStrategyClassName = new CommonClientConfigKey<String>("BackoffStrategyClassName", "com.netflix.client.backoff.ExponentialBackoffStrategy"){};
+    
+    public static final IClientConfigKey<Integer> ThrottleCooldownMilliSeconds = new CommonClientConfigKey<Integer>("ThrottleCooldownMilliSeconds", 1000){};
+    
+    public static final IClientConfigKey<Integer> MaxThrottleCooldownMilliSeconds = new CommonClientConfigKey<Integer>("MaxThrottleCooldownMilliSeconds", 60 * 1000){};
+    
+    public static final IClientConfigKey<String> ServerLoadHeaderName = new CommonClientConfigKey<String>("ServerLoadHeaderName"){};
+    
+    public static final IClientConfigKey<Integer> ServerLoadDecayMilliSeconds = new CommonClientConfigKey<Integer>("ServerLoadDecayMilliSeconds", 10 * 1000){};
+    
+    public static final IClientConfigKey<Boolean> EnableAdaptiveReadTimeout = new CommonClientConfigKey<Boolean>("EnableAdaptiveReadTimeout", false){};
+    
+    public static final IClientConfigKey<Float> AdaptiveReadTimeoutPercentile = new CommonClientConfigKey<Float>("AdaptiveReadTimeoutPercentile", 99.0f){};
+    
+    public static final IClientConfigKey<Float> AdaptiveReadTimeoutMultiplier = new CommonClientConfigKey<Float>("AdaptiveReadTimeoutMultiplier", 2.0f){};
+    
+    public static final IClientConfigKey<Integer> AdaptiveReadTimeoutMinMilliSeconds = new CommonClientConfigKey<Integer>("AdaptiveReadTimeoutMinMilliSeconds", 100){};
+    
+    public static final IClientConfigKey<Integer> AdaptiveReadTimeoutMaxMilliSeconds = new CommonClientConfigKey<Integer>("AdaptiveReadTimeoutMaxMilliSeconds", -1){};
+    
+    public static final IClientConfigKey<Integer> AdaptiveReadTimeoutMinSamples = new CommonClientConfigKey<Integer>("AdaptiveReadTimeoutMinSamples", 100){};
+    
+    public static final IClientConfigKey<Integer> CircuitTrippingResponseTimeMilliSeconds = new CommonClientConfigKey<Integer>("CircuitTrippingResponseTimeMilliSeconds", -1){};
+    
     public static final IClientConfigKey<Integer> ReadTimeout = new CommonClientConfigKey<Integer>("ReadTimeout", 5000){};
     
     public static final IClientConfigKey<Integer> SendBufferSize = new CommonClientConfigKey<Integer>("SendBufferSize"){};
+
+    public static final IClientConfigKey<Boolean> TcpNoDelay = new CommonClientConfigKey<Boolean>("TcpNoDelay"){};
+
+    public static final IClientConfigKey<Boolean> SoKeepAlive = new CommonClientConfigKey<Boolean>("SoKeepAlive"){};
+
+    // Netty transport: use native epoll if available and which event loop group the client runs on
+    public static final IClientConfigKey<Boolean> UseNativeTransport = new CommonClientConfigKey<Boolean>("UseNativeTransport", false){};
+
+    public static final IClientConfigKey<String> EventLoopGroupName = new CommonClientConfigKey<String>("EventLoopGroupName"){};
+
+    public static final IClientConfigKey<Integer> EventLoopThreads = new CommonClientConfigKey<Integer>("EventLoopThreads", 0){};
     
     public static final IClientConfigKey<Boolean> StaleCheckingEnabled = new CommonClientConfigKey<Boolean>("StaleCheckingEnabled", false){};
+
+    // Apache HttpClient: validate idle connections in the background instead of on every lease
+    public static final IClientConfigKey<Boolean> BackgroundStaleCheckEnabled = new CommonClientConfigKey<Boolean>("BackgroundStaleCheckEnabled", false){};
+
+    public static final IClientConfigKey<Integer> StaleCheckInactivityMilliSeconds = new CommonClientConfigKey<Integer>("StaleCheckInactivityMilliSeconds", 2000){};
     
     public static final IClientConfigKey<Integer> Linger = new CommonClientConfigKey<Integer>("Linger", 0){};
     
     public static final IClientConfigKey<Integer> ConnectionManagerTimeout = new CommonClientConfigKey<Integer>("ConnectionManagerTimeout", 2000){};
+
+    public static final IClientConfigKey<Boolean> UseStripedConnectionPool = new CommonClientConfigKey<Boolean>("UseStripedConnectionPool", false){};
     
     public static final IClientConfigKey<Boolean> FollowRedirects = new CommonClientConfigKey<Boolean>("FollowRedirects", false){};
     
@@ -120,7 +168,35 @@ public abstract class CommonClientConfigKey<T> implements IClientConfigKey<T> {
     
     public static final IClientConfigKey<Integer> ConnIdleEvictTimeMilliSeconds = new CommonClientConfigKey<Integer>("ConnIdleEvictTimeMilliSeconds", 30*1000){};
     
+    // NFHttpClient keep-alive, -1 to keep connections until they are evicted for being idle
+    public static final IClientConfigKey<Integer> KeepAliveDefaultMilliSeconds = new CommonClientConfigKey<Integer>("KeepAliveDefaultMilliSeconds", -1){};
+
+    public static final IClientConfigKey<Integer> KeepAliveMaxMilliSeconds = new CommonClientConfigKey<Integer>("KeepAliveMaxMilliSeconds", -1){};
+
+    public static final IClientConfigKey<Integer> KeepAliveSafetyMarginMilliSeconds = new CommonClientConfigKey<Integer>("KeepAliveSafetyMarginMilliSeconds", 500){};
+    
+    public static final IClientConfigKey<Integer> ConnectionMaxAgeMilliSeconds = new CommonClientConfigKey<Integer>("ConnectionMaxAgeMilliSeconds", 0){};
+    
+    public static final IClientConfigKey<Integer> ConnectionMaxAgeJitterMilliSeconds = new CommonClientConfigKey<Integer>("ConnectionMaxAgeJitterMilliSeconds", 0){};
+    
     public static final IClientConfigKey<Integer> ConnectionCleanerRepeatInterval = new CommonClientConfigKey<Integer>("ConnectionCleanerRepeatInterval", 30*1000){};
+
+    public static final IClientConfigKey<Integer> ConnectionDrainTimeout = new CommonClientConfigKey<Integer>("ConnectionDrainTimeout", 10*1000){};
+    
+    public static final IClientConfigKey<Integer> MultiplexedConnectionsPerServer = new CommonClientConfigKey<Integer>("MultiplexedConnectionsPerServer", 2){};
+    
+    public static final IClientConfigKey<Integer> MaxInFlightRequestsPerConnection = new CommonClientConfigKey<Integer>("MaxInFlightRequestsPerConnection", 100){};
+    
+    public static final IClientConfigKey<Integer> MaxFrameLength = new CommonClientConfigKey<Integer>("MaxFrameLength", 16 * 1024 * 1024){};
+
+    // Server-Sent Events: events buffered per slow subscriber and how a broken stream is re-established
+    public static final IClientConfigKey<Integer> SSEBufferSize = new CommonClientConfigKey<Integer>("SSEBufferSize", 1024){};
+
+    public static final IClientConfigKey<Integer> SSEReconnectDelayMilliSeconds = new CommonClientConfigKey<Integer>("SSEReconnectDelayMilliSeconds", 3000){};
+
+    public static final IClientConfigKey<Integer> SSEMaxReconnectDelayMilliSeconds = new CommonClientConfigKey<Integer>("SSEMaxReconnectDelayMilliSeconds", 60 * 1000){};
+
+    public static final IClientConfigKey<Integer> SSEMaxReconnectAttempts = new CommonClientConfigKey<Integer>("SSEMaxReconnectAttempts", 10){};
     
     public static final IClientConfigKey<Boolean> EnableGZIPContentEncodingFilter = new CommonClientConfigKey<Boolean>("EnableGZIPContentEncodingFilter", false){};
     
@@ -162,6 +238,8 @@ public abstract class CommonClientConfigKey<T> implements IClientConfigKey<T> {
     
     public static final IClientConfigKey<Integer> NFLoadBalancerMaxTotalPingTime = new CommonClientConfigKey<Integer>("NFLoadBalancerMaxTotalPingTime"){};
 
+    public static final IClientConfigKey<Integer> NFLoadBalancerPingTimeout = new CommonClientConfigKey<Integer>("NFLoadBalancerPingTimeout", 2000){};
+
     public static final IClientConfigKey<String> NFLoadBalancerStatsClassName = new CommonClientConfigKey<String>("NFLoadBalancerStatsClassName", "com.netflix.loadbalancer.LoadBalancerStats"){};
     
     public static final IClientConfigKey<String> NIWSServerListClassName = new CommonClientConfigKey<String>("NIWSServerListClassName", "com.netflix.loadbalancer.ConfigurationBasedServerList"){};
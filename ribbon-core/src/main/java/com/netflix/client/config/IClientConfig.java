@@ -134,6 +134,15 @@ public interface IClientConfig {
         return Optional.ofNullable(get(key));
     }
 
+    /**
+     * @return Immutable snapshot of the values read on the request path.  Implementations that support dynamic
+     * reloading should cache the snapshot and rebuild it when a value changes.  By default a new snapshot is built
+     * on every call.
+     */
+    default ClientConfigSnapshot getSnapshot() {
+        return ClientConfigSnapshot.of(this);
+    }
+
     /**
      * @return Return a global dynamic property not scoped to the specific client.  The property will be looked up as is using the
      * key without any client name or namespace prefix
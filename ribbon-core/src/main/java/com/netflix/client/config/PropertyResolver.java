@@ -1,7 +1,9 @@
 package com.netflix.client.config;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Internal abstraction to decouple the property source from Ribbon's internal configuration.
@@ -22,4 +24,12 @@ public interface PropertyResolver {
      * @param action
      */
     void onChange(Runnable action);
+
+    /**
+     * Provide action to invoke with the names of the properties that changed.  Resolvers that can't tell which
+     * properties changed pass null, meaning that any property may have changed.
+     */
+    default void onPropertiesChanged(Consumer<Set<String>> action) {
+        onChange(() -> action.accept(null));
+    }
 }
@@ -6,13 +6,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
@@ -30,6 +37,10 @@ import java.util.stream.Collectors;
  *
  * Internally the config tracks two maps, one for dynamic properties and one for code settable default values to use
  * when a property is not defined in the underlying property source.
+ *
+ * The config also tracks which property source names each key is resolved from so that a change notification only
+ * refreshes the keys it affects.  Notifications that arrive while a refresh is in progress, either from another
+ * thread or from a listener, are batched into the ongoing refresh.
  */
 public abstract class ReloadableClientConfig implements IClientConfig {
     private static final Logger LOG = LoggerFactory.getLogger(ReloadableClientConfig.class);
@@ -49,6 +60,21 @@ public abstract class ReloadableClientConfig implements IClientConfig {
 
     private final AtomicLong refreshCounter = new AtomicLong();
 
+    // Full property names in the property source to the keys that are resolved from them
+    private final Map<String, Set<IClientConfigKey>> keysByPropertyName = new ConcurrentHashMap<>();
+
+    // Full property names each key is resolved from, in order of precedence.  Depends on the client name and namespace
+    private final Map<IClientConfigKey, List<String>> propertyNamesByKey = new ConcurrentHashMap<>();
+
+    // Property name prefixes for keys resolved with getPrefixMappedProperty
+    private final Map<IClientConfigKey, List<String>> keysByPropertyPrefix = new ConcurrentHashMap<>();
+
+    private final Set<IClientConfigKey> pendingKeys = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean pendingFullReload = new AtomicBoolean();
+
+    private final AtomicInteger reloadWip = new AtomicInteger();
+
     private final PropertyResolver resolver;
 
     private String clientName = DEFAULT_CLIENT_NAME;
@@ -69,9 +95,103 @@ public abstract class ReloadableClientConfig implements IClientConfig {
      * Refresh all seen properties from the underlying property storage
      */
     public final void reload() {
-        changeActions.values().forEach(Runnable::run);
-        dynamicProperties.values().forEach(ReloadableProperty::reload);
-        cachedToString = null;
+        pendingFullReload.set(true);
+        drainReloads();
+    }
+
+    /**
+     * Refresh only the properties resolved from the changed property names
+     *
+     * @param propertyNames Full names of the changed properties, or null if unknown in which case all properties are
+     *                      refreshed
+     */
+    public final void reload(Set<String> propertyNames) {
+        if (propertyNames == null) {
+            reload();
+            return;
+        }
+
+        for (String name : propertyNames) {
+            Set<IClientConfigKey> keys = keysByPropertyName.get(name);
+            if (keys != null) {
+                pendingKeys.addAll(keys);
+            }
+            keysByPropertyPrefix.forEach((key, prefixes) -> {
+                for (String prefix : prefixes) {
+                    if (name.length() > prefix.length() && name.charAt(prefix.length()) == '.' && name.startsWith(prefix)) {
+                        pendingKeys.add(key);
+                        return;
+                    }
+                }
+            });
+        }
+
+        if (!pendingKeys.isEmpty()) {
+            drainReloads();
+        }
+    }
+
+    /**
+     * Only one thread refreshes at a time.  Keys that become pending while a refresh is in progress are picked up by
+     * the refreshing thread before it returns.
+     */
+    private void drainReloads() {
+        if (reloadWip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            if (pendingFullReload.getAndSet(false)) {
+                pendingKeys.clear();
+                changeActions.values().forEach(Runnable::run);
+                dynamicProperties.values().forEach(ReloadableProperty::reload);
+                onPropertiesUpdated();
+            } else if (!pendingKeys.isEmpty()) {
+                final Set<IClientConfigKey> keys = new HashSet<>(pendingKeys);
+                pendingKeys.removeAll(keys);
+                // Update the raw values before the properties that may be derived from them
+                keys.forEach(key -> Optional.ofNullable(changeActions.get(key)).ifPresent(Runnable::run));
+                keys.forEach(key -> Optional.ofNullable(dynamicProperties.get(key)).ifPresent(ReloadableProperty::reload));
+                onPropertiesUpdated();
+            }
+            missed = reloadWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void trackPropertyNames(IClientConfigKey<?> key, Collection<String> names) {
+        for (String name : names) {
+            keysByPropertyName.computeIfAbsent(name, ignore -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    /**
+     * @return Names of the properties that key is resolved from, in order of precedence
+     */
+    private List<String> getPropertyNames(IClientConfigKey<?> key) {
+        return propertyNamesByKey.computeIfAbsent(key, ignore -> {
+            final List<String> names = new ArrayList<>(2);
+            if (!StringUtils.isEmpty(clientName)) {
+                names.add(clientName + "." + getNameSpace() + "." + key.key());
+            }
+            names.add(getNameSpace() + "." + key.key());
+            return Collections.unmodifiableList(names);
+        });
+    }
+
+    /**
+     * The client name or namespace changed, so re-track the keys under the property names they are now resolved from
+     */
+    private void retrackPropertyNames() {
+        propertyNamesByKey.forEach((key, names) -> names.forEach(name -> {
+            final Set<IClientConfigKey> keys = keysByPropertyName.get(name);
+            if (keys != null) {
+                keys.remove(key);
+            }
+        }));
+        propertyNamesByKey.clear();
+        changeActions.keySet().forEach(key -> trackPropertyNames(key, getPropertyNames(key)));
+        keysByPropertyPrefix.replaceAll((key, ignore) -> getPropertyNames(key));
     }
 
     /**
@@ -80,6 +200,10 @@ public abstract class ReloadableClientConfig implements IClientConfig {
     @Deprecated
     public void setClientName(String clientName){
         this.clientName  = clientName;
+        retrackPropertyNames();
+        if (isDynamic) {
+            reload();
+        }
     }
 
     @Override
@@ -95,6 +219,10 @@ public abstract class ReloadableClientConfig implements IClientConfig {
     @Override
     public final void setNameSpace(String nameSpace) {
         this.namespace = nameSpace;
+        retrackPropertyNames();
+        if (isDynamic) {
+            reload();
+        }
     }
 
     @Override
@@ -102,8 +230,9 @@ public abstract class ReloadableClientConfig implements IClientConfig {
         LOG.info("[{}] loading config", clientName);
         this.clientName = clientName;
         this.isDynamic = true;
+        retrackPropertyNames();
         loadDefaultValues();
-        resolver.onChange(this::reload);
+        resolver.onPropertiesChanged(this::reload);
 
         internalProperties.forEach((key, value) -> LOG.info("[{}] {}={}", clientName, key, value.orElse(null)));
     }
@@ -136,6 +265,8 @@ public abstract class ReloadableClientConfig implements IClientConfig {
      */
     private <T> void autoRefreshFromPropertyResolver(final IClientConfigKey<T> key) {
         changeActions.computeIfAbsent(key, ignore -> {
+            trackPropertyNames(key, getPropertyNames(key));
+
             final Supplier<Optional<T>> valueSupplier = () -> resolveFromPropertyResolver(key);
             final Optional<T> current = valueSupplier.get();
             if (current.isPresent()) {
@@ -186,10 +317,9 @@ public abstract class ReloadableClientConfig implements IClientConfig {
 
                 @Override
                 public void reload() {
-                    refreshCounter.incrementAndGet();
-
                     Optional<T> next = valueSupplier.get();
                     if (!next.equals(current)) {
+                        refreshCounter.incrementAndGet();
                         current = next;
                         consumers.forEach(consumer -> consumer.accept(next.orElseGet(defaultSupplier::get)));
                     }
@@ -221,6 +351,7 @@ public abstract class ReloadableClientConfig implements IClientConfig {
     public final <T> Property<T> getGlobalProperty(IClientConfigKey<T> key) {
         LOG.debug("[{}] get global property '{}' with default '{}'", clientName, key.key(), key.defaultValue());
 
+        trackPropertyNames(key, Collections.singleton(key.key()));
         return getOrCreateProperty(
                 key,
                 () -> resolver.get(key.key(), key.type()),
@@ -243,6 +374,7 @@ public abstract class ReloadableClientConfig implements IClientConfig {
     public <T> Property<T> getPrefixMappedProperty(IClientConfigKey<T> key) {
         LOG.debug("[{}] get dynamic property key={} ns={} client={}", clientName, key.key(), getNameSpace());
 
+        keysByPropertyPrefix.put(key, getPropertyNames(key));
         return getOrCreateProperty(
                 key,
                 getPrefixedMapPropertySupplier(key),
@@ -255,15 +387,13 @@ public abstract class ReloadableClientConfig implements IClientConfig {
      * - default scope
      */
     private <T> Optional<T> resolveFromPropertyResolver(IClientConfigKey<T> key) {
-        Optional<T> value;
-        if (!StringUtils.isEmpty(clientName)) {
-            value = resolver.get(clientName + "." + getNameSpace() + "." + key.key(), key.type());
+        for (String name : getPropertyNames(key)) {
+            Optional<T> value = resolver.get(name, key.type());
             if (value.isPresent()) {
                 return value;
             }
         }
-
-        return resolver.get(getNameSpace() + "." + key.key(), key.type());
+        return Optional.empty();
     }
 
     @Override
@@ -324,10 +454,10 @@ public abstract class ReloadableClientConfig implements IClientConfig {
         return () -> {
             final Map<String, String> values = new HashMap<>();
 
-            resolver.forEach(getNameSpace() + "." + key.key(), values::put);
-
-            if (!StringUtils.isEmpty(clientName)) {
-                resolver.forEach(clientName + "." + getNameSpace() + "." + key.key(), values::put);
+            // Lowest precedence first so that client specific values override the defaults
+            final List<String> prefixes = getPropertyNames(key);
+            for (int i = prefixes.size() - 1; i >= 0; i--) {
+                resolver.forEach(prefixes.get(i), values::put);
             }
 
             try {
@@ -362,7 +492,7 @@ public abstract class ReloadableClientConfig implements IClientConfig {
         if (isDynamic) {
             autoRefreshFromPropertyResolver(key);
         }
-        cachedToString = null;
+        onPropertiesUpdated();
     }
 
     @Override
@@ -376,7 +506,7 @@ public abstract class ReloadableClientConfig implements IClientConfig {
         } else {
             internalProperties.put(key, Optional.ofNullable(value));
         }
-        cachedToString = null;
+        onPropertiesUpdated();
 
         return this;
     }
@@ -436,6 +566,43 @@ public abstract class ReloadableClientConfig implements IClientConfig {
 
     private volatile String cachedToString = null;
 
+    // Incremented on every change to internalProperties so that a stale snapshot is never served
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile VersionedSnapshot snapshot = null;
+
+    private static final class VersionedSnapshot {
+        final long version;
+        final ClientConfigSnapshot snapshot;
+
+        VersionedSnapshot(long version, ClientConfigSnapshot snapshot) {
+            this.version = version;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private void onPropertiesUpdated() {
+        version.incrementAndGet();
+        cachedToString = null;
+    }
+
+    /**
+     * @return Snapshot of the request path values, rebuilt after any value changed
+     */
+    @Override
+    public ClientConfigSnapshot getSnapshot() {
+        final VersionedSnapshot current = snapshot;
+        final long currentVersion = version.get();
+        if (current != null && current.version == currentVersion) {
+            return current.snapshot;
+        }
+
+        // A change made while building results in a version mismatch and another rebuild on the next call
+        final ClientConfigSnapshot next = ClientConfigSnapshot.of(this);
+        snapshot = new VersionedSnapshot(currentVersion, next);
+        return next;
+    }
+
     @Override
     public String toString() {
         if (cachedToString == null) {
@@ -447,7 +614,8 @@ public abstract class ReloadableClientConfig implements IClientConfig {
     }
 
     /**
-     * @return Number of individual properties refreshed.  This can be used to identify patterns of excessive updates.
+     * @return Number of individual property values changed by a refresh.  This can be used to identify patterns of
+     * excessive updates.
      */
     public long getRefreshCount() {
         return refreshCounter.get();
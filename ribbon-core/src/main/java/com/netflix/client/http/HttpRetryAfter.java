@@ -0,0 +1,65 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.client.http;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the value of an HTTP Retry-After header, which is either a number of seconds or an HTTP date
+ * (RFC 7231, section 7.1.3).
+ */
+public final class HttpRetryAfter {
+
+    public static final String HEADER_NAME = "Retry-After";
+
+    private HttpRetryAfter() {
+    }
+
+    /**
+     * @return the delay in milliseconds requested by the header value, 0 if the given date is already in the past,
+     *         or -1 if the value is null or cannot be parsed
+     */
+    public static long parseMillis(String value, long nowMillis) {
+        if (value == null) {
+            return -1;
+        }
+        value = value.trim();
+        if (value.isEmpty()) {
+            return -1;
+        }
+        if (Character.isDigit(value.charAt(0))) {
+            try {
+                return Long.parseLong(value) * 1000;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        try {
+            long date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, date - nowMillis);
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    public static long parseMillis(String value) {
+        return parseMillis(value, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,79 @@
+package com.netflix.client.backoff;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.config.ConfigurationManager;
+
+public class BackoffStrategyTest {
+
+    @Test
+    public void testExponential() {
+        BackoffStrategy strategy = new ExponentialBackoffStrategy(100, 1000);
+        assertEquals(100, strategy.getBackoffMillis(0, 0));
+        assertEquals(200, strategy.getBackoffMillis(1, 100));
+        assertEquals(800, strategy.getBackoffMillis(3, 400));
+        assertEquals(1000, strategy.getBackoffMillis(4, 800));
+        assertEquals(1000, strategy.getBackoffMillis(100, 1000));
+    }
+
+    @Test
+    public void testFullJitter() {
+        BackoffStrategy strategy = new FullJitterBackoffStrategy(100, 1000);
+        for (int i = 0; i < 1000; i++) {
+            int backoff = strategy.getBackoffMillis(2, 0);
+            assertTrue(backoff >= 0 && backoff <= 400);
+            assertTrue(strategy.getBackoffMillis(10, 0) <= 1000);
+        }
+    }
+
+    @Test
+    public void testEqualJitter() {
+        BackoffStrategy strategy = new EqualJitterBackoffStrategy(100, 1000);
+        for (int i = 0; i < 1000; i++) {
+            int backoff = strategy.getBackoffMillis(2, 0);
+            assertTrue(backoff >= 200 && backoff <= 400);
+            assertTrue(strategy.getBackoffMillis(10, 0) <= 1000);
+        }
+    }
+
+    @Test
+    public void testDecorrelatedJitter() {
+        BackoffStrategy strategy = new DecorrelatedJitterBackoffStrategy(100, 1000);
+        int previous = 0;
+        for (int i = 0; i < 1000; i++) {
+            int backoff = strategy.getBackoffMillis(i, previous);
+            assertTrue(backoff >= 100);
+            assertTrue(backoff <= Math.min(1000, 3 * Math.max(previous, 100)));
+            previous = backoff;
+        }
+    }
+
+    @Test
+    public void testZeroInterval() {
+        assertEquals(0, new ExponentialBackoffStrategy(0, 1000).getBackoffMillis(5, 0));
+        assertEquals(0, new FullJitterBackoffStrategy(0, 1000).getBackoffMillis(5, 0));
+        assertEquals(0, new DecorrelatedJitterBackoffStrategy(0, 1000).getBackoffMillis(5, 0));
+    }
+
+    @Test
+    public void testIntervalsAreDynamic() {
+        String prefix = "BackoffStrategyTest.ribbon.";
+        ConfigurationManager.getConfigInstance().setProperty(prefix + CommonClientConfigKey.BackoffInterval.key(), "100");
+        ConfigurationManager.getConfigInstance().setProperty(prefix + CommonClientConfigKey.MaxBackoffInterval.key(), "1000");
+        DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.loadProperties("BackoffStrategyTest");
+        ExponentialBackoffStrategy strategy = new ExponentialBackoffStrategy();
+        strategy.initWithNiwsConfig(config);
+        assertEquals(400, strategy.getBackoffMillis(2, 0));
+        assertEquals(1000, strategy.getBackoffMillis(10, 0));
+
+        ConfigurationManager.getConfigInstance().setProperty(prefix + CommonClientConfigKey.BackoffInterval.key(), "50");
+        ConfigurationManager.getConfigInstance().setProperty(prefix + CommonClientConfigKey.MaxBackoffInterval.key(), "5000");
+        assertEquals(200, strategy.getBackoffMillis(2, 0));
+        assertEquals(5000, strategy.getBackoffMillis(10, 0));
+    }
+}
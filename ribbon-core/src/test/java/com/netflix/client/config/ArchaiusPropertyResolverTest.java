@@ -50,4 +50,36 @@ public class ArchaiusPropertyResolverTest {
 
         Assert.assertTrue(map.toString(), map.isEmpty());
     }
+
+    @Test
+    public void prefixIndexFollowsChanges() {
+        final String prefix = "client.ribbon." + testName.getMethodName();
+
+        final AbstractConfiguration config = ConfigurationManager.getConfigInstance();
+
+        config.setProperty(prefix + ".a", "1");
+        config.setProperty(prefix + ".b", "2");
+        // Shares the prefix string but not the prefix path
+        config.setProperty(prefix + "Other.c", "3");
+
+        final ArchaiusPropertyResolver resolver = ArchaiusPropertyResolver.INSTANCE;
+
+        final Map<String, String> map = new TreeMap<>();
+        resolver.forEach(prefix, map::put);
+
+        final Map<String, String> expected = new TreeMap<>();
+        expected.put("a", "1");
+        expected.put("b", "2");
+        Assert.assertEquals(expected, map);
+
+        config.clearProperty(prefix + ".a");
+        config.setProperty(prefix + ".b", "4");
+
+        map.clear();
+        resolver.forEach(prefix, map::put);
+
+        expected.clear();
+        expected.put("b", "4");
+        Assert.assertEquals(expected, map);
+    }
 }
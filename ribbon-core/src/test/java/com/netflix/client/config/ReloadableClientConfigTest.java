@@ -7,6 +7,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class ReloadableClientConfigTest {
     @Rule
     public TestName testName = new TestName();
@@ -63,4 +65,84 @@ public class ReloadableClientConfigTest {
 
         Assert.assertEquals(123, config.get(testKey).intValue());
     }
+
+    @Test
+    public void reloadOnlyChangedProperties() {
+        final CommonClientConfigKey<Integer> otherKey = new CommonClientConfigKey<Integer>(testKey.key() + ".other", -1) {};
+        final DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.loadProperties("foo");
+
+        final AtomicInteger changes = new AtomicInteger();
+        config.getDynamicProperty(testKey).onChange(value -> changes.incrementAndGet());
+        config.getDynamicProperty(otherKey);
+        final long refreshCount = config.getRefreshCount();
+
+        // Unrelated property does not refresh anything
+        ConfigurationManager.getConfigInstance().setProperty("ribbon." + testKey.key() + ".unrelated", "1");
+        Assert.assertEquals(refreshCount, config.getRefreshCount());
+
+        // Only the property that changed is refreshed
+        ConfigurationManager.getConfigInstance().setProperty("foo.ribbon." + testKey.key(), "123");
+        Assert.assertEquals(123, config.getDynamicProperty(testKey).getOrDefault().intValue());
+        Assert.assertEquals(refreshCount + 1, config.getRefreshCount());
+        Assert.assertEquals(1, changes.get());
+
+        ConfigurationManager.getConfigInstance().clearProperty("ribbon." + testKey.key() + ".unrelated");
+        ConfigurationManager.getConfigInstance().clearProperty("foo.ribbon." + testKey.key());
+        Assert.assertEquals(-1, config.getDynamicProperty(testKey).getOrDefault().intValue());
+        Assert.assertEquals(2, changes.get());
+    }
+
+    @Test
+    public void refreshCountOnlyCountsChanges() {
+        final DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.loadProperties("foo");
+        config.getDynamicProperty(testKey);
+        final long refreshCount = config.getRefreshCount();
+
+        config.reload();
+        Assert.assertEquals(refreshCount, config.getRefreshCount());
+
+        ConfigurationManager.getConfigInstance().setProperty("foo.ribbon." + testKey.key(), "123");
+        Assert.assertEquals(refreshCount + 1, config.getRefreshCount());
+        ConfigurationManager.getConfigInstance().clearProperty("foo.ribbon." + testKey.key());
+    }
+
+    @Test
+    public void reloadAfterNamespaceChange() {
+        final DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.loadProperties("foo");
+        final Property<Integer> property = config.getDynamicProperty(testKey);
+        config.setNameSpace("other");
+
+        // The old property name no longer applies
+        ConfigurationManager.getConfigInstance().setProperty("foo.ribbon." + testKey.key(), "123");
+        Assert.assertEquals(-1, property.getOrDefault().intValue());
+
+        ConfigurationManager.getConfigInstance().setProperty("foo.other." + testKey.key(), "456");
+        Assert.assertEquals(456, property.getOrDefault().intValue());
+
+        ConfigurationManager.getConfigInstance().clearProperty("foo.ribbon." + testKey.key());
+        ConfigurationManager.getConfigInstance().clearProperty("foo.other." + testKey.key());
+    }
+
+    @Test
+    public void snapshotRebuiltOnChange() {
+        final DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.loadProperties(testName.getMethodName());
+
+        final ClientConfigSnapshot snapshot = config.getSnapshot();
+        Assert.assertSame(snapshot, config.getSnapshot());
+        Assert.assertEquals(CommonClientConfigKey.ReadTimeout.defaultValue().intValue(), snapshot.getReadTimeout());
+
+        config.set(CommonClientConfigKey.ReadTimeout, 1234);
+        Assert.assertEquals(1234, config.getSnapshot().getReadTimeout());
+
+        ConfigurationManager.getConfigInstance().setProperty(testName.getMethodName() + ".ribbon.MaxAutoRetries", "3");
+        Assert.assertEquals(3, config.getSnapshot().getMaxAutoRetries());
+        Assert.assertSame(config.getSnapshot(), config.getSnapshot());
+
+        ConfigurationManager.getConfigInstance().clearProperty(testName.getMethodName() + ".ribbon.MaxAutoRetries");
+        Assert.assertEquals(CommonClientConfigKey.MaxAutoRetries.defaultValue().intValue(), config.getSnapshot().getMaxAutoRetries());
+    }
 }
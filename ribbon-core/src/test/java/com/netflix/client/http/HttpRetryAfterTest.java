@@ -0,0 +1,48 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.client.http;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class HttpRetryAfterTest {
+
+    // Sun, 06 Nov 1994 08:49:37 GMT
+    private static final long NOW = 784111777000L;
+
+    @Test
+    public void testDeltaSeconds() {
+        assertEquals(0, HttpRetryAfter.parseMillis("0", NOW));
+        assertEquals(120000, HttpRetryAfter.parseMillis(" 120 ", NOW));
+    }
+
+    @Test
+    public void testHttpDate() {
+        assertEquals(30000, HttpRetryAfter.parseMillis("Sun, 06 Nov 1994 08:50:07 GMT", NOW));
+        assertEquals(0, HttpRetryAfter.parseMillis("Sun, 06 Nov 1994 08:49:00 GMT", NOW));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertEquals(-1, HttpRetryAfter.parseMillis(null, NOW));
+        assertEquals(-1, HttpRetryAfter.parseMillis("", NOW));
+        assertEquals(-1, HttpRetryAfter.parseMillis("12abc", NOW));
+        assertEquals(-1, HttpRetryAfter.parseMillis("tomorrow", NOW));
+    }
+}
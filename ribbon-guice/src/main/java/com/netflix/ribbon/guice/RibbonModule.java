@@ -15,8 +15,15 @@
  */
 package com.netflix.ribbon.guice;
 
+import java.util.Set;
+
 import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Scopes;
+import com.google.inject.multibindings.Multibinder;
+import com.netflix.client.ClientComponentContributor;
+import com.netflix.client.ClientComponentRegistry;
 import com.netflix.client.config.ClientConfigFactory;
 import com.netflix.ribbon.DefaultResourceFactory;
 import com.netflix.ribbon.RibbonResourceFactory;
@@ -27,6 +34,12 @@ import com.netflix.ribbon.proxy.processor.AnnotationProcessorsProvider.DefaultAn
 
 /**
  * Default bindings for Ribbon
+ * <p>
+ * {@link ClientComponentContributor}s bound with {@link Multibinder} are applied to
+ * {@link ClientComponentRegistry#DEFAULT} when the injector is created, in addition to those found by the ServiceLoader.
+ * Since {@link com.netflix.client.ClientFactory} always uses that registry, this is a global side effect: the
+ * contributed factories also apply to clients created outside of the injector, they stay registered after the
+ * injector is discarded, and with several injectors the last contribution for a class name wins.
  * 
  * @author elandau
  *
@@ -38,5 +51,24 @@ public class RibbonModule extends AbstractModule {
         bind(RibbonTransportFactory.class).to(DefaultRibbonTransportFactory.class).in(Scopes.SINGLETON);
         bind(AnnotationProcessorsProvider.class).to(DefaultAnnotationProcessorsProvider.class).in(Scopes.SINGLETON);
         bind(RibbonResourceFactory.class).to(DefaultResourceFactory.class).in(Scopes.SINGLETON);
+        Multibinder.newSetBinder(binder(), ClientComponentContributor.class);
+        bind(ClientComponentRegistry.class).toProvider(ClientComponentRegistryProvider.class).asEagerSingleton();
+    }
+
+    static class ClientComponentRegistryProvider implements Provider<ClientComponentRegistry> {
+        private final Set<ClientComponentContributor> contributors;
+
+        @Inject
+        ClientComponentRegistryProvider(Set<ClientComponentContributor> contributors) {
+            this.contributors = contributors;
+        }
+
+        @Override
+        public ClientComponentRegistry get() {
+            for (ClientComponentContributor contributor : contributors) {
+                contributor.contribute(ClientComponentRegistry.DEFAULT);
+            }
+            return ClientComponentRegistry.DEFAULT;
+        }
     }
 }
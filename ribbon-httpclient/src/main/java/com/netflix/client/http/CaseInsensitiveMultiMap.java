@@ -2,64 +2,197 @@ package com.netflix.client.http;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.AbstractMap.SimpleEntry;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
-
+/**
+ * Multi-valued headers with case insensitive names.
+ * <p>
+ * Names are indexed by a hash that ignores case and is computed from the characters of the name,
+ * so a lookup neither lower cases the name nor allocates. A header keeps the name it was first
+ * added with and its values in the order they were added.
+ */
 public class CaseInsensitiveMultiMap implements HttpHeaders {
-    Multimap<String, Entry<String, String>> map = ArrayListMultimap.create();
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Header[] table;
+    private Header head;
+    private Header tail;
+    private int size;
+    private List<Entry<String, String>> allHeaders;
+
+    public CaseInsensitiveMultiMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private CaseInsensitiveMultiMap(int capacity) {
+        int length = INITIAL_CAPACITY;
+        while (length * 3 < capacity * 4) {
+            length <<= 1;
+        }
+        table = new Header[length];
+    }
+
+    /**
+     * Create a case insensitive view of existing headers, e.g. the headers of a response. Only the
+     * index is built, the value lists are shared with the given map and are not copied. Entries
+     * with a null name or null values are ignored.
+     */
+    public static CaseInsensitiveMultiMap wrap(Map<String, List<String>> headers) {
+        CaseInsensitiveMultiMap result = new CaseInsensitiveMultiMap(headers.size());
+        for (Entry<String, List<String>> entry: headers.entrySet()) {
+            String name = entry.getKey();
+            List<String> values = entry.getValue();
+            if (name == null || values == null) {
+                continue;
+            }
+            Header header = result.find(name);
+            if (header == null) {
+                result.insert(name, values);
+            } else {
+                // same name in a different case, do not modify the shared list
+                List<String> merged = new ArrayList<String>(header.values);
+                merged.addAll(values);
+                header.values = merged;
+            }
+        }
+        return result;
+    }
 
     @Override
     public String getFirstValue(String headerName) {
-        Collection<Entry<String, String>> entries = map.get(headerName.toLowerCase());
-        if (entries == null || entries.isEmpty()) {
+        Header header = find(headerName);
+        if (header == null || header.values.isEmpty()) {
             return null;
-        } 
-        return entries.iterator().next().getValue();
+        }
+        return header.values.get(0);
     }
 
     @Override
     public List<String> getAllValues(String headerName) {
-        Collection<Entry<String, String>> entries = map.get(headerName.toLowerCase());
-        List<String> values = Lists.newArrayList();
-        if (entries != null) {
-            for (Entry<String, String> entry: entries) {
-                values.add(entry.getValue());
-            }
+        Header header = find(headerName);
+        if (header == null) {
+            return new ArrayList<String>();
         }
-        return values;
+        return new ArrayList<String>(header.values);
     }
 
     @Override
     public List<Entry<String, String>> getAllHeaders() {
-        Collection<Entry<String, String>> all = map.values();
-        return new ArrayList<Entry<String, String>>(all);
+        List<Entry<String, String>> result = allHeaders;
+        if (result == null) {
+            result = new ArrayList<Entry<String, String>>(size);
+            for (Header header = head; header != null; header = header.after) {
+                for (String value: header.values) {
+                    result.add(new SimpleEntry<String, String>(header.name, value));
+                }
+            }
+            result = Collections.unmodifiableList(result);
+            allHeaders = result;
+        }
+        return result;
     }
 
     @Override
     public boolean containsHeader(String name) {
-        return map.containsKey(name.toLowerCase());
+        return find(name) != null;
     }
-    
+
     public void addHeader(String name, String value) {
-        if (getAllValues(name).contains(value)) {
-            return;
+        Header header = find(name);
+        if (header == null) {
+            List<String> values = new ArrayList<String>(1);
+            values.add(value);
+            insert(name, values);
+        } else if (!header.values.contains(value)) {
+            header.values.add(value);
+        }
+        allHeaders = null;
+    }
+
+    /**
+     * @return the headers keyed by the name they were first added with
+     */
+    public Map<String, Collection<String>> asMap() {
+        Map<String, Collection<String>> result = new LinkedHashMap<String, Collection<String>>();
+        for (Header header = head; header != null; header = header.after) {
+            result.put(header.name, Collections.unmodifiableList(header.values));
+        }
+        return result;
+    }
+
+    private Header find(String name) {
+        int hash = hash(name);
+        for (Header header = table[hash & (table.length - 1)]; header != null; header = header.next) {
+            if (header.hash == hash && header.name.equalsIgnoreCase(name)) {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    private void insert(String name, List<String> values) {
+        if ((size + 1) * 4 > table.length * 3) {
+            resize();
+        }
+        Header header = new Header(name, hash(name), values);
+        int index = header.hash & (table.length - 1);
+        header.next = table[index];
+        table[index] = header;
+        if (tail == null) {
+            head = header;
+        } else {
+            tail.after = header;
         }
-        SimpleEntry<String, String> entry = new SimpleEntry<String, String>(name, value);
-        map.put(name.toLowerCase(), entry);
+        tail = header;
+        size++;
     }
-    
-    Map<String, Collection<String>> asMap() {
-        Multimap<String, String> result = ArrayListMultimap.create();
-        Collection<Entry<String, String>> all = map.values();
-        for (Entry<String, String> entry: all) {
-            result.put(entry.getKey(), entry.getValue());
+
+    private void resize() {
+        Header[] newTable = new Header[table.length << 1];
+        for (Header header = head; header != null; header = header.after) {
+            int index = header.hash & (newTable.length - 1);
+            header.next = newTable[index];
+            newTable[index] = header;
+        }
+        table = newTable;
+    }
+
+    /**
+     * Hash that is equal for names that are equal ignoring case, consistent with {@link String#equalsIgnoreCase(String)}
+     */
+    private static int hash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            } else if (c >= 128) {
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            h = 31 * h + c;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Header {
+        final String name;
+        final int hash;
+        List<String> values;
+        // next header in the same bucket
+        Header next;
+        // next header in insertion order
+        Header after;
+
+        Header(String name, int hash, List<String> values) {
+            this.name = name;
+            this.hash = hash;
+            this.values = values;
         }
-        return result.asMap();
     }
 }
@@ -46,6 +46,10 @@ public class ConnectionPoolCleaner {
     long connectionCleanerTimerDelay = 10;
     long connectionCleanerRepeatInterval = 30*1000;
     private volatile ScheduledFuture<?> scheduledFuture;
+
+    private Property<Integer> staleCheckInactivityMilliSeconds = Property.of(2*1000);
+    long staleCheckRepeatInterval = 1000;
+    private volatile ScheduledFuture<?> staleCheckFuture;
     
     public ConnectionPoolCleaner(String name, ClientConnectionManager connMgr, ScheduledExecutorService scheduler){
         this.name = name;
@@ -88,6 +92,22 @@ public class ConnectionPoolCleaner {
         this.connectionCleanerRepeatInterval = connectionCleanerRepeatInterval;
     }
 
+    public Property<Integer> getStaleCheckInactivityMilliSeconds() {
+        return staleCheckInactivityMilliSeconds;
+    }
+
+    public void setStaleCheckInactivityMilliSeconds(Property<Integer> staleCheckInactivityMilliSeconds) {
+        this.staleCheckInactivityMilliSeconds = staleCheckInactivityMilliSeconds;
+    }
+
+    public long getStaleCheckRepeatInterval() {
+        return staleCheckRepeatInterval;
+    }
+
+    public void setStaleCheckRepeatInterval(long staleCheckRepeatInterval) {
+        this.staleCheckRepeatInterval = staleCheckRepeatInterval;
+    }
+
     public void initTask(){
         if (enableConnectionPoolCleanerTask) {
             scheduledFuture = scheduler.scheduleWithFixedDelay(new Runnable() {
@@ -108,6 +128,34 @@ public class ConnectionPoolCleaner {
         }
     }
     
+    /**
+     * Periodically check the connections that have been idle for longer than the inactivity threshold
+     * and close the stale ones. Only supported by {@link StripedConnectionManager}.
+     * <p>
+     * The check runs every {@link #getStaleCheckRepeatInterval()} milliseconds. The inactivity threshold is
+     * read on every run, so changes to the dynamic property take effect without restarting the task.
+     */
+    public void initStaleCheckTask() {
+        if (!(connMgr instanceof StripedConnectionManager)) {
+            logger.warn("Background stale connection check is not supported by {} of NFHttpClient {}", connMgr.getClass().getName(), name);
+            return;
+        }
+        staleCheckFuture = scheduler.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    closeStaleConnections();
+                } catch (Throwable e) {
+                    logger.error("Exception in stale connection check", e);
+                }
+            }
+        }, staleCheckRepeatInterval, staleCheckRepeatInterval, TimeUnit.MILLISECONDS);
+        logger.info("Initializing background stale connection check for NFHttpClient:" + name);
+    }
+
+    void closeStaleConnections() {
+        ((StripedConnectionManager) connMgr).closeStaleConnections(staleCheckInactivityMilliSeconds.getOrDefault(), TimeUnit.MILLISECONDS);
+    }
+
     void cleanupConnections(){
         connMgr.closeExpiredConnections();
         connMgr.closeIdleConnections(connIdleEvictTimeMilliSeconds.getOrDefault(), TimeUnit.MILLISECONDS);
@@ -118,6 +166,9 @@ public class ConnectionPoolCleaner {
         if (scheduledFuture != null) {
             scheduledFuture.cancel(true);
         }
+        if (staleCheckFuture != null) {
+            staleCheckFuture.cancel(true);
+        }
     }
     
     public String toString(){
@@ -127,6 +178,7 @@ public class ConnectionPoolCleaner {
         sb.append(", connIdleEvictTimeMilliSeconds:" + connIdleEvictTimeMilliSeconds.get());
         sb.append(", connectionCleanerTimerDelay:" + connectionCleanerTimerDelay);
         sb.append(", connectionCleanerRepeatInterval:" + connectionCleanerRepeatInterval);
+        sb.append(", staleCheckInactivityMilliSeconds:" + staleCheckInactivityMilliSeconds.get());
         
         return sb.toString();
     }
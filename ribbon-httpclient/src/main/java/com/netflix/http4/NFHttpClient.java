@@ -32,6 +32,7 @@ import org.apache.http.Header;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpRequestRetryHandler;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.params.ClientPNames;
@@ -42,6 +43,7 @@ import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 import org.apache.http.params.HttpProtocolParams;
 import org.apache.http.protocol.HttpContext;
@@ -95,6 +97,8 @@ public class NFHttpClient extends DefaultHttpClient {
 
 	private Property<Integer> maxTotalConnectionProperty;
 	private Property<Integer> maxConnectionPerHostProperty;
+
+	private boolean backgroundStaleCheck;
 	
 	static {
 	    ThreadFactory factory = (new ThreadFactoryBuilder()).setDaemon(true)
@@ -134,12 +138,21 @@ public class NFHttpClient extends DefaultHttpClient {
     }
 
     protected NFHttpClient(String name, IClientConfig config, boolean registerMonitor) {
-        super(new MonitoredConnectionManager(name));
+        super(createConnectionManager(name, config));
         this.name = name;
         init(config, registerMonitor);
     }
+
+    private static MonitoredConnectionManager createConnectionManager(String name, IClientConfig config) {
+        if (config.get(CommonClientConfigKey.UseStripedConnectionPool, false)
+                || config.get(CommonClientConfigKey.BackgroundStaleCheckEnabled, false)) {
+            return new StripedConnectionManager(name);
+        }
+        return new MonitoredConnectionManager(name);
+    }
 	
 	void init(IClientConfig config, boolean registerMonitor) {
+		backgroundStaleCheck = config.get(CommonClientConfigKey.BackgroundStaleCheckEnabled, false);
 		HttpParams params = getParams();
 
 		HttpProtocolParams.setContentCharset(params, "UTF-8");  
@@ -153,6 +166,17 @@ public class NFHttpClient extends DefaultHttpClient {
 		params.setParameter(ClientPNames.DEFAULT_HEADERS, defaultHeaders);
 
 		connPoolCleaner = new ConnectionPoolCleaner(name, this.getConnectionManager(), connectionPoolCleanUpScheduler);
+		if (backgroundStaleCheck) {
+			// idle connections are validated in the background instead of on every lease
+			HttpConnectionParams.setStaleCheckingEnabled(params, false);
+			connPoolCleaner.setStaleCheckInactivityMilliSeconds(config.getDynamicProperty(CommonClientConfigKey.StaleCheckInactivityMilliSeconds));
+			connPoolCleaner.initStaleCheckTask();
+		}
+
+		setKeepAliveStrategy(new NFHttpKeepAliveStrategy(
+				config.getDynamicProperty(CommonClientConfigKey.KeepAliveDefaultMilliSeconds),
+				config.getDynamicProperty(CommonClientConfigKey.KeepAliveMaxMilliSeconds),
+				config.getDynamicProperty(CommonClientConfigKey.KeepAliveSafetyMarginMilliSeconds)));
 
 		this.retriesProperty = config.getGlobalProperty(RETRIES.format(name));
 
@@ -188,6 +212,18 @@ public class NFHttpClient extends DefaultHttpClient {
 
 	}
 
+	/**
+	 * With the background stale check, requests that fail because the server closed the pooled
+	 * connection are retried once on a fresh connection before the given handler is consulted.
+	 */
+	@Override
+	public synchronized void setHttpRequestRetryHandler(HttpRequestRetryHandler handler) {
+		if (backgroundStaleCheck && !(handler instanceof StaleConnectionRetryHandler)) {
+			handler = new StaleConnectionRetryHandler(name, handler);
+		}
+		super.setHttpRequestRetryHandler(handler);
+	}
+
 	@Monitor(name = "HttpClient-ConnPoolCleaner", type = DataSourceType.INFORMATIONAL)
 	public ConnectionPoolCleaner getConnPoolCleaner() {
 		return connPoolCleaner;
@@ -0,0 +1,88 @@
+/*
+ *
+ * Copyright 2013 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.http4;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.Property;
+
+/**
+ * Keep-alive strategy for {@link NFHttpClient} that honors the <code>Keep-Alive: timeout=</code> hint of the server.
+ * <p>
+ * A pooled connection expires {@link CommonClientConfigKey#KeepAliveSafetyMarginMilliSeconds} before the server would
+ * close it, so it is not leased again just as the server closes it. Without a hint the connection is kept for
+ * {@link CommonClientConfigKey#KeepAliveDefaultMilliSeconds}. Either way the time is capped by
+ * {@link CommonClientConfigKey#KeepAliveMaxMilliSeconds}. A value of -1 means no default or no cap, in which case
+ * connections are kept until they are evicted for being idle.
+ */
+public class NFHttpKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+    private final Property<Integer> defaultKeepAlive;
+    private final Property<Integer> maxKeepAlive;
+    private final Property<Integer> safetyMargin;
+
+    public NFHttpKeepAliveStrategy(Property<Integer> defaultKeepAlive, Property<Integer> maxKeepAlive,
+            Property<Integer> safetyMargin) {
+        this.defaultKeepAlive = defaultKeepAlive;
+        this.maxKeepAlive = maxKeepAlive;
+        this.safetyMargin = safetyMargin;
+    }
+
+    @Override
+    public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+        long duration;
+        long serverTimeout = getServerTimeout(response);
+        if (serverTimeout >= 0) {
+            // HttpClient treats 0 as no expiry, so expire right away instead
+            duration = Math.max(serverTimeout - Math.max(safetyMargin.getOrDefault(), 0), 1);
+        } else {
+            duration = defaultKeepAlive.getOrDefault();
+        }
+        long max = maxKeepAlive.getOrDefault();
+        if (max > 0 && (duration <= 0 || duration > max)) {
+            duration = max;
+        }
+        return duration;
+    }
+
+    /**
+     * @return the timeout in milliseconds from the Keep-Alive header or -1 if there is none
+     */
+    static long getServerTimeout(HttpResponse response) {
+        HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+        while (it.hasNext()) {
+            HeaderElement element = it.nextElement();
+            String value = element.getValue();
+            if (value != null && element.getName().equalsIgnoreCase("timeout")) {
+                try {
+                    return Long.parseLong(value.trim()) * 1000;
+                } catch (NumberFormatException e) {
+                    // ignore, same as HttpClient's default strategy
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -48,13 +48,13 @@ import com.netflix.servo.monitor.Timer;
  */
 public class NamedConnectionPool extends ConnPoolByRoute {
 
-    private Counter freeEntryCounter;
-    private Counter createEntryCounter;
-    private Counter requestCounter;
-    private Counter releaseCounter;
-    private Counter deleteCounter;
-    private Timer requestTimer;
-    private Timer creationTimer;
+    Counter freeEntryCounter;
+    Counter createEntryCounter;
+    Counter requestCounter;
+    Counter releaseCounter;
+    Counter deleteCounter;
+    Timer requestTimer;
+    Timer creationTimer;
     private String name;
     
     public NamedConnectionPool(String name, ClientConnectionOperator operator,
@@ -0,0 +1,84 @@
+/*
+ *
+ * Copyright 2013 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.http4;
+
+import java.io.IOException;
+import java.net.SocketException;
+
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.protocol.ExecutionContext;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.servo.monitor.DynamicCounter;
+
+/**
+ * Retries a request once when the pooled connection it was sent on turns out to have been closed by
+ * the server, that is on {@link NoHttpResponseException} or a connection reset. HttpClient reopens the
+ * connection before retrying, so the retry goes out on a fresh connection. Since the server may have
+ * processed the request anyway, a request with an entity is only retried if it was not sent completely.
+ * Any other failure, and any further attempt, is left to the given retry handler.
+ * <p>
+ * This is used by {@link NFHttpClient} when the stale check on lease is replaced by a background check,
+ * since a connection can still be closed between two checks.
+ */
+public class StaleConnectionRetryHandler implements HttpRequestRetryHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleConnectionRetryHandler.class);
+
+    private static final String RETRY_COUNTER = "PLATFORM:NFttpClient:StaleConnectionRetries:";
+
+    private final String httpClientName;
+    private final HttpRequestRetryHandler delegate;
+
+    public StaleConnectionRetryHandler(String httpClientName, HttpRequestRetryHandler delegate) {
+        this.httpClientName = httpClientName;
+        this.delegate = delegate;
+    }
+
+    public HttpRequestRetryHandler getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+        if (executionCount == 1 && isStaleConnectionFailure(exception, context)) {
+            logger.debug("Retrying request of client {} on a fresh connection", httpClientName, exception);
+            DynamicCounter.increment(RETRY_COUNTER + httpClientName);
+            return true;
+        }
+        return delegate != null && delegate.retryRequest(exception, executionCount, context);
+    }
+
+    private static boolean isStaleConnectionFailure(IOException exception, HttpContext context) {
+        boolean closedByServer = exception instanceof NoHttpResponseException
+                || (exception instanceof SocketException && exception.getMessage() != null
+                        && exception.getMessage().contains("reset"));
+        if (!closedByServer) {
+            return false;
+        }
+        // the request may have been processed, only retry if that does no harm
+        HttpRequest request = (HttpRequest) context.getAttribute(ExecutionContext.HTTP_REQUEST);
+        Boolean sent = (Boolean) context.getAttribute(ExecutionContext.HTTP_REQ_SENT);
+        return !(request instanceof HttpEntityEnclosingRequest) || sent == null || !sent;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *
+ * Copyright 2013 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.http4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.conn.tsccm.ConnPoolByRoute;
+
+/**
+ * A {@link MonitoredConnectionManager} that uses {@link StripedConnectionPool} as its underlying
+ * connection pool, for clients where many threads lease and release connections concurrently.
+ */
+public class StripedConnectionManager extends MonitoredConnectionManager {
+
+    public StripedConnectionManager(String name) {
+        super(name);
+    }
+
+    public StripedConnectionManager(String name, SchemeRegistry schreg, long connTTL,
+            TimeUnit connTTLTimeUnit) {
+        super(name, schreg, connTTL, connTTLTimeUnit);
+    }
+
+    public StripedConnectionManager(String name, SchemeRegistry schreg) {
+        super(name, schreg);
+    }
+
+    /**
+     * @see StripedConnectionPool#closeStaleConnections(long, TimeUnit)
+     */
+    public void closeStaleConnections(long idletime, TimeUnit tunit) {
+        ((StripedConnectionPool) pool).closeStaleConnections(idletime, tunit);
+    }
+
+    @Override
+    protected ConnPoolByRoute createConnectionPool(long connTTL,
+            TimeUnit connTTLTimeUnit) {
+        return new StripedConnectionPool(connOperator, connPerRoute, 20, connTTL, connTTLTimeUnit);
+    }
+}
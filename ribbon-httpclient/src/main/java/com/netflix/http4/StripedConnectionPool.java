@@ -0,0 +1,482 @@
+/*
+ *
+ * Copyright 2013 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.http4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.params.ConnPerRoute;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.tsccm.BasicPoolEntry;
+import org.apache.http.impl.conn.tsccm.PoolEntryRequest;
+import org.apache.http.impl.conn.tsccm.WaitingThread;
+import org.apache.http.impl.conn.tsccm.WaitingThreadAborter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.servo.monitor.Stopwatch;
+
+/**
+ * A {@link NamedConnectionPool} that does not serialize every lease and release on the single
+ * lock of {@link org.apache.http.impl.conn.tsccm.ConnPoolByRoute}.
+ * <p>
+ * Idle connections are kept in a lock-free deque per route and the most recently released
+ * connection is handed out first, so warm connections get reused and rarely used ones age out
+ * through the idle eviction of {@link ConnectionPoolCleaner}. The per route and total limits are
+ * enforced with atomic counters. A route's lock is only taken by threads that have to wait for a
+ * connection and by the threads that wake them up.
+ * <p>
+ * The Servo counters and timers are the same as the ones of {@link NamedConnectionPool}.
+ */
+public class StripedConnectionPool extends NamedConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedConnectionPool.class);
+
+    private final ConcurrentMap<HttpRoute, RoutePool> routePools = new ConcurrentHashMap<HttpRoute, RoutePool>();
+    private final Set<StripedPoolEntry> leasedEntries = Collections.newSetFromMap(new ConcurrentHashMap<StripedPoolEntry, Boolean>());
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger numWaiting = new AtomicInteger();
+    private final long connTTL;
+    private final TimeUnit connTTLTimeUnit;
+    private volatile boolean closed;
+
+    public StripedConnectionPool(String name, ClientConnectionOperator operator,
+            ConnPerRoute connPerRoute, int maxTotalConnections, long connTTL,
+            TimeUnit connTTLTimeUnit) {
+        this(operator, connPerRoute, maxTotalConnections, connTTL, connTTLTimeUnit);
+        initMonitors(name);
+    }
+
+    StripedConnectionPool(ClientConnectionOperator operator,
+            ConnPerRoute connPerRoute, int maxTotalConnections, long connTTL,
+            TimeUnit connTTLTimeUnit) {
+        super(operator, connPerRoute, maxTotalConnections, connTTL, connTTLTimeUnit);
+        this.connTTL = connTTL;
+        this.connTTLTimeUnit = connTTLTimeUnit;
+    }
+
+    @Override
+    public PoolEntryRequest requestPoolEntry(final HttpRoute route, final Object state) {
+        requestCounter.increment();
+        final WaitingThreadAborter aborter = new WaitingThreadAborter();
+        return new PoolEntryRequest() {
+            @Override
+            public void abortRequest() {
+                RoutePool routePool = getRoutePool(route);
+                routePool.lock.lock();
+                try {
+                    aborter.abort();
+                } finally {
+                    routePool.lock.unlock();
+                }
+            }
+
+            @Override
+            public BasicPoolEntry getPoolEntry(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ConnectionPoolTimeoutException {
+                return getEntryBlocking(route, state, timeout, tunit, aborter);
+            }
+        };
+    }
+
+    @Override
+    protected BasicPoolEntry getEntryBlocking(HttpRoute route, Object state,
+            long timeout, TimeUnit tunit, WaitingThreadAborter aborter)
+            throws ConnectionPoolTimeoutException, InterruptedException {
+        Stopwatch stopWatch = requestTimer.start();
+        try {
+            Date deadline = null;
+            if (timeout > 0) {
+                deadline = new Date(System.currentTimeMillis() + tunit.toMillis(timeout));
+            }
+            RoutePool routePool = getRoutePool(route);
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("Connection pool shut down");
+                }
+                StripedPoolEntry entry = routePool.pollFree(state);
+                if (entry != null) {
+                    if (entry.isExpired(System.currentTimeMillis())) {
+                        deleteEntry(entry);
+                        continue;
+                    }
+                    freeEntryCounter.increment();
+                    leasedEntries.add(entry);
+                    return entry;
+                }
+                if (reserve(routePool)) {
+                    return newEntry(routePool);
+                }
+                if (!deleteIdleEntry(routePool)) {
+                    awaitEntry(routePool, deadline, aborter);
+                }
+            }
+        } finally {
+            stopWatch.stop();
+        }
+    }
+
+    @Override
+    public void freeEntry(BasicPoolEntry entry, boolean reusable,
+            long validDuration, TimeUnit timeUnit) {
+        releaseCounter.increment();
+        StripedPoolEntry pooledEntry = (StripedPoolEntry) entry;
+        leasedEntries.remove(pooledEntry);
+        if (!reusable || closed) {
+            deleteEntry(pooledEntry);
+            return;
+        }
+        RoutePool routePool = pooledEntry.routePool;
+        pooledEntry.updateExpiry(validDuration, timeUnit);
+        routePool.free.offerFirst(pooledEntry);
+        if (closed) {
+            // raced with shutdown() which may have already drained this route
+            deleteFreeEntries(routePool);
+        }
+        signalWaiting(routePool);
+    }
+
+    @Override
+    protected void deleteEntry(BasicPoolEntry entry) {
+        deleteCounter.increment();
+        StripedPoolEntry pooledEntry = (StripedPoolEntry) entry;
+        pooledEntry.closeConnection();
+        release(pooledEntry.routePool);
+    }
+
+    @Override
+    public int getConnectionsInPool() {
+        return totalConnections.get();
+    }
+
+    @Override
+    public int getConnectionsInPool(HttpRoute route) {
+        RoutePool routePool = routePools.get(route);
+        return routePool == null ? 0 : routePool.allocated.get();
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit tunit) {
+        if (tunit == null) {
+            throw new IllegalArgumentException("Time unit must not be null.");
+        }
+        long deadline = System.currentTimeMillis() - tunit.toMillis(Math.max(idletime, 0));
+        for (RoutePool routePool : routePools.values()) {
+            for (StripedPoolEntry entry : routePool.free) {
+                if (entry.getUpdated() <= deadline && routePool.free.removeFirstOccurrence(entry)) {
+                    deleteEntry(entry);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        long now = System.currentTimeMillis();
+        for (RoutePool routePool : routePools.values()) {
+            for (StripedPoolEntry entry : routePool.free) {
+                if (entry.isExpired(now) && routePool.free.removeFirstOccurrence(entry)) {
+                    deleteEntry(entry);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void deleteClosedConnections() {
+        for (RoutePool routePool : routePools.values()) {
+            for (StripedPoolEntry entry : routePool.free) {
+                if (!entry.isOpen() && routePool.free.removeFirstOccurrence(entry)) {
+                    deleteEntry(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check the connections that have been idle for at least the given time and close the ones that are
+     * stale, e.g. because the server closed them. This is meant to run in the background instead of the
+     * stale check Apache HttpClient does on every lease. A connection being checked is taken out of the
+     * pool, so it cannot be leased at the same time.
+     */
+    public void closeStaleConnections(long idletime, TimeUnit tunit) {
+        long deadline = System.currentTimeMillis() - tunit.toMillis(Math.max(idletime, 0));
+        for (RoutePool routePool : routePools.values()) {
+            // collect first, the entries that are kept go back to the end of the deque
+            List<StripedPoolEntry> idleEntries = new ArrayList<StripedPoolEntry>();
+            for (StripedPoolEntry entry : routePool.free) {
+                if (entry.getUpdated() <= deadline) {
+                    idleEntries.add(entry);
+                }
+            }
+            for (StripedPoolEntry entry : idleEntries) {
+                if (!routePool.free.removeFirstOccurrence(entry)) {
+                    continue;
+                }
+                if (entry.isStale()) {
+                    deleteEntry(entry);
+                } else {
+                    // it has been idle for a while, keep it behind the recently used ones
+                    routePool.free.offerLast(entry);
+                    if (closed) {
+                        deleteFreeEntries(routePool);
+                    }
+                    signalWaiting(routePool);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        closed = true;
+        // leased connections are closed now and given back to the pool when they are released
+        for (StripedPoolEntry entry : leasedEntries) {
+            entry.closeConnection();
+        }
+        for (RoutePool routePool : routePools.values()) {
+            deleteFreeEntries(routePool);
+            routePool.signalAll();
+        }
+        super.shutdown();
+    }
+
+    private RoutePool getRoutePool(HttpRoute route) {
+        RoutePool routePool = routePools.get(route);
+        if (routePool == null) {
+            RoutePool newPool = new RoutePool(route);
+            routePool = routePools.putIfAbsent(route, newPool);
+            if (routePool == null) {
+                routePool = newPool;
+            }
+        }
+        return routePool;
+    }
+
+    /**
+     * Reserve room for a new connection on the route, within both the route and the total limit.
+     */
+    private boolean reserve(RoutePool routePool) {
+        int maxForRoute = connPerRoute.getMaxForRoute(routePool.route);
+        while (true) {
+            int allocated = routePool.allocated.get();
+            if (allocated >= maxForRoute) {
+                return false;
+            }
+            if (routePool.allocated.compareAndSet(allocated, allocated + 1)) {
+                break;
+            }
+        }
+        while (true) {
+            int total = totalConnections.get();
+            if (total >= maxTotalConnections) {
+                routePool.allocated.decrementAndGet();
+                signalWaiting(routePool);
+                return false;
+            }
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(RoutePool routePool) {
+        routePool.allocated.decrementAndGet();
+        totalConnections.decrementAndGet();
+        signalWaiting(routePool);
+    }
+
+    private StripedPoolEntry newEntry(RoutePool routePool) {
+        createEntryCounter.increment();
+        Stopwatch stopWatch = creationTimer.start();
+        try {
+            StripedPoolEntry entry = new StripedPoolEntry(operator, routePool, connTTL, connTTLTimeUnit);
+            leasedEntries.add(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            release(routePool);
+            throw e;
+        } finally {
+            stopWatch.stop();
+        }
+    }
+
+    /**
+     * Make room for a new connection by closing the least recently used idle connection of the
+     * route, whose state did not match the request, or of any route if the total limit is reached.
+     */
+    private boolean deleteIdleEntry(RoutePool routePool) {
+        StripedPoolEntry entry = routePool.free.pollLast();
+        if (entry == null && totalConnections.get() >= maxTotalConnections) {
+            for (RoutePool other : routePools.values()) {
+                entry = other.free.pollLast();
+                if (entry != null) {
+                    break;
+                }
+            }
+        }
+        if (entry == null) {
+            return false;
+        }
+        deleteEntry(entry);
+        return true;
+    }
+
+    private void deleteFreeEntries(RoutePool routePool) {
+        StripedPoolEntry entry;
+        while ((entry = routePool.free.pollFirst()) != null) {
+            deleteEntry(entry);
+        }
+    }
+
+    private boolean hasIdleEntries() {
+        for (RoutePool routePool : routePools.values()) {
+            if (!routePool.free.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitEntry(RoutePool routePool, Date deadline, WaitingThreadAborter aborter)
+            throws ConnectionPoolTimeoutException, InterruptedException {
+        routePool.lock.lock();
+        try {
+            // register before checking again so that a concurrent release either is seen here or signals us
+            routePool.waiting.incrementAndGet();
+            numWaiting.incrementAndGet();
+            try {
+                if (closed
+                        || !routePool.free.isEmpty()
+                        || (routePool.allocated.get() < connPerRoute.getMaxForRoute(routePool.route)
+                                && totalConnections.get() < maxTotalConnections)
+                        || (totalConnections.get() >= maxTotalConnections && hasIdleEntries())) {
+                    return;
+                }
+                WaitingThread waitingThread = new WaitingThread(routePool.available, null);
+                aborter.setWaitingThread(waitingThread);
+                boolean success = waitingThread.await(deadline);
+                if (!success && deadline != null && deadline.getTime() <= System.currentTimeMillis()) {
+                    throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+                }
+            } finally {
+                numWaiting.decrementAndGet();
+                routePool.waiting.decrementAndGet();
+            }
+        } finally {
+            routePool.lock.unlock();
+        }
+    }
+
+    /**
+     * Wake up the threads waiting on the route, or on any route if there are none, as they
+     * may be able to use a connection slot given back to the total limit.
+     */
+    private void signalWaiting(RoutePool routePool) {
+        if (routePool.signalAll() || numWaiting.get() == 0) {
+            return;
+        }
+        for (RoutePool other : routePools.values()) {
+            if (other.signalAll()) {
+                return;
+            }
+        }
+    }
+
+    private static final class RoutePool {
+        final HttpRoute route;
+        // head is the most recently released connection
+        final Deque<StripedPoolEntry> free = new ConcurrentLinkedDeque<StripedPoolEntry>();
+        final AtomicInteger allocated = new AtomicInteger();
+        final AtomicInteger waiting = new AtomicInteger();
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition available = lock.newCondition();
+
+        RoutePool(HttpRoute route) {
+            this.route = route;
+        }
+
+        StripedPoolEntry pollFree(Object state) {
+            for (StripedPoolEntry entry : free) {
+                if (Objects.equals(state, entry.getState()) && free.removeFirstOccurrence(entry)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        boolean signalAll() {
+            if (waiting.get() == 0) {
+                return false;
+            }
+            lock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            return true;
+        }
+    }
+
+    private static final class StripedPoolEntry extends BasicPoolEntry {
+        final RoutePool routePool;
+
+        StripedPoolEntry(ClientConnectionOperator op, RoutePool routePool, long connTTL, TimeUnit timeunit) {
+            super(op, routePool.route, connTTL, timeunit);
+            this.routePool = routePool;
+        }
+
+        boolean isOpen() {
+            OperatedClientConnection conn = getConnection();
+            return conn != null && conn.isOpen();
+        }
+
+        boolean isStale() {
+            OperatedClientConnection conn = getConnection();
+            return conn == null || !conn.isOpen() || conn.isStale();
+        }
+
+        void closeConnection() {
+            OperatedClientConnection conn = getConnection();
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (IOException e) {
+                    logger.debug("I/O error closing connection", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.niws.client.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import rx.Observable;
+import rx.functions.Func2;
+
+import com.google.common.base.Preconditions;
+import com.netflix.client.ClientException;
+import com.netflix.client.RequestSpecificRetryHandler;
+import com.netflix.client.RetryHandler;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.client.http.HttpRequest;
+import com.netflix.client.http.HttpResponse;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.ribbon.transport.netty.HashedWheelScheduler;
+import com.netflix.ribbon.transport.netty.RibbonTransport;
+import com.netflix.ribbon.transport.netty.http.LoadBalancingHttpClient;
+import com.netflix.ribbon.transport.netty.http.NettyHttpLoadBalancerErrorHandler;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.core.header.OutBoundHeaders;
+import com.sun.jersey.spi.MessageBodyWorkers;
+
+/**
+ * Non-blocking counterpart of {@link RestClient}. It takes the same {@link HttpRequest} and produces the same
+ * {@link HttpResponse}, but executes on the RxNetty based {@link LoadBalancingHttpClient}. A request in flight does
+ * not hold a thread, and the back off between retries is scheduled instead of slept.
+ * <p>
+ * Server selection, retries and server statistics use the same {@link ILoadBalancer} and client configuration as the
+ * {@link RestClient} it is obtained from (see {@link RestClient#async()}). As with {@link RestClient}, only GET
+ * requests are retried on the next server unless OkToRetryOnAllOperations is set, and 503 responses are retried
+ * as {@link ClientException.ErrorType#SERVER_THROTTLED}. Entities are converted with the Jersey providers of the
+ * originating client.
+ * <p>
+ * Response content is buffered before the response is emitted. {@link HttpResponse#getRequestedURI()} is the URI of
+ * the request as submitted, since the server is chosen inside the load balancer.
+ */
+public class AsyncRestClient {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private final LoadBalancingHttpClient<ByteBuf, ByteBuf> client;
+    private final IClientConfig clientConfig;
+    private final RetryHandler retryHandler;
+    private final MessageBodyWorkers workers;
+
+    public AsyncRestClient(ILoadBalancer lb, IClientConfig clientConfig, Client jerseyClient) {
+        Preconditions.checkNotNull(jerseyClient, "jerseyClient");
+        this.clientConfig = clientConfig;
+        this.workers = jerseyClient.getMessageBodyWorkers();
+        this.retryHandler = clientConfig == null
+                ? new NettyHttpLoadBalancerErrorHandler()
+                : new NettyHttpLoadBalancerErrorHandler(clientConfig);
+        this.client = LoadBalancingHttpClient.<ByteBuf, ByteBuf>builder()
+                .withLoadBalancer(lb)
+                .withClientConfig(clientConfig)
+                .withRetryHandler(retryHandler)
+                .withPipelineConfigurator(RibbonTransport.DEFAULT_HTTP_PIPELINE_CONFIGURATOR)
+                .withPoolCleanerScheduler(RibbonTransport.poolCleanerScheduler)
+                .withResponseToErrorPolicy(new ThrottledResponseToErrorPolicy())
+                .build();
+    }
+
+    /**
+     * Submit the request to a server chosen by the load balancer, or to the server in the request URI if it is
+     * absolute. The returned {@link Observable} emits a single response or an error and does not start the request
+     * until subscribed.
+     */
+    public Observable<HttpResponse> submit(HttpRequest request) {
+        return submit(request, null);
+    }
+
+    /**
+     * @param requestConfig overrides the client configuration for this request. If null, the override configuration
+     *                      of the request is used.
+     */
+    public Observable<HttpResponse> submit(final HttpRequest request, IClientConfig requestConfig) {
+        final IClientConfig config = requestConfig == null ? request.getOverrideConfig() : requestConfig;
+        final HttpClientRequest<ByteBuf> nettyRequest;
+        try {
+            nettyRequest = toNettyRequest(request);
+        } catch (Exception e) {
+            return Observable.error(e);
+        }
+        final URI requestedUri = request.getUri();
+        return client.submit(nettyRequest, getRequestSpecificRetryHandler(request, config), config)
+                .flatMap(response -> toHttpResponse(response, requestedUri, config));
+    }
+
+    /**
+     * Start executing the request and return a {@link Future} of the response
+     */
+    public Future<HttpResponse> execute(HttpRequest request) {
+        return submit(request).toBlocking().toFuture();
+    }
+
+    public void shutdown() {
+        client.shutdown();
+    }
+
+    RequestSpecificRetryHandler getRequestSpecificRetryHandler(HttpRequest request, IClientConfig requestConfig) {
+        if (!request.isRetriable()) {
+            return new RequestSpecificRetryHandler(false, false, retryHandler, requestConfig);
+        }
+        if (clientConfig != null && clientConfig.getSnapshot().isOkToRetryOnAllOperations()) {
+            return new RequestSpecificRetryHandler(true, true, retryHandler, requestConfig);
+        }
+        return new RequestSpecificRetryHandler(true, request.getVerb() == HttpRequest.Verb.GET, retryHandler, requestConfig);
+    }
+
+    private HttpClientRequest<ByteBuf> toNettyRequest(HttpRequest request) throws Exception {
+        HttpClientRequest<ByteBuf> nettyRequest = HttpClientRequest.create(
+                HttpMethod.valueOf(request.getVerb().verb()), getRequestUri(request));
+        for (Map.Entry<String, Collection<String>> header : request.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                nettyRequest.withHeader(header.getKey(), value);
+            }
+        }
+        Object entity = request.getEntity();
+        if (entity != null) {
+            nettyRequest.withContent(serialize(entity, request));
+        }
+        return nettyRequest;
+    }
+
+    /**
+     * @return path and query of the request, prefixed with scheme and authority if the request URI is absolute
+     */
+    static String getRequestUri(HttpRequest request) {
+        URI uri = request.getUri();
+        StringBuilder sb = new StringBuilder();
+        if (uri.getHost() != null) {
+            sb.append(uri.getScheme() == null ? "http" : uri.getScheme()).append("://").append(uri.getRawAuthority());
+        }
+        String path = uri.getRawPath();
+        sb.append(path == null || path.isEmpty() ? "/" : path);
+        if (uri.getRawQuery() != null) {
+            sb.append('?').append(uri.getRawQuery());
+        }
+        RestClient.appendQueryParams(sb, uri.getRawQuery() != null, request.getQueryParams());
+        return sb.toString();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private byte[] serialize(Object entity, HttpRequest request) throws Exception {
+        if (entity instanceof byte[]) {
+            return (byte[]) entity;
+        }
+        String contentType = request.getHttpHeaders().getFirstValue(javax.ws.rs.core.HttpHeaders.CONTENT_TYPE);
+        MediaType mediaType = contentType == null ? MediaType.WILDCARD_TYPE : MediaType.valueOf(contentType);
+        Class type = entity.getClass();
+        MessageBodyWriter writer = workers.getMessageBodyWriter(type, type, NO_ANNOTATIONS, mediaType);
+        if (writer == null) {
+            throw new ClientException(ClientException.ErrorType.GENERAL,
+                    "No MessageBodyWriter for " + type.getName() + " and media type " + mediaType);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(entity, type, type, NO_ANNOTATIONS, mediaType, new OutBoundHeaders(), out);
+        return out.toByteArray();
+    }
+
+    private Observable<HttpResponse> toHttpResponse(
+            final io.reactivex.netty.protocol.http.client.HttpClientResponse<ByteBuf> response,
+            final URI requestedUri, final IClientConfig config) {
+        return response.getContent()
+                .map(buf -> {
+                    byte[] chunk = new byte[buf.readableBytes()];
+                    buf.readBytes(chunk);
+                    return chunk;
+                })
+                .toList()
+                .map(chunks -> {
+                    InBoundHeaders headers = new InBoundHeaders();
+                    for (Map.Entry<String, String> header : response.getHeaders().entries()) {
+                        headers.add(header.getKey(), header.getValue());
+                    }
+                    ClientResponse clientResponse = new ClientResponse(
+                            response.getStatus().code(), headers, new ByteArrayInputStream(concat(chunks)), workers);
+                    return new HttpClientResponse(clientResponse, requestedUri, config);
+                });
+    }
+
+    private static byte[] concat(List<byte[]> chunks) {
+        if (chunks.size() == 1) {
+            return chunks.get(0);
+        }
+        int length = 0;
+        for (byte[] chunk : chunks) {
+            length += chunk.length;
+        }
+        byte[] content = new byte[length];
+        int offset = 0;
+        for (byte[] chunk : chunks) {
+            System.arraycopy(chunk, 0, content, offset, chunk.length);
+            offset += chunk.length;
+        }
+        return content;
+    }
+
+    /**
+     * Turns 503 into a retriable {@link ClientException.ErrorType#SERVER_THROTTLED} like {@link RestClient} does, and
+     * passes every other response through so that callers see 4xx and 5xx responses as they do with {@link RestClient}.
+     */
+    private static class ThrottledResponseToErrorPolicy implements
+            Func2<io.reactivex.netty.protocol.http.client.HttpClientResponse<ByteBuf>, Integer,
+                  Observable<io.reactivex.netty.protocol.http.client.HttpClientResponse<ByteBuf>>> {
+
+        @Override
+        public Observable<io.reactivex.netty.protocol.http.client.HttpClientResponse<ByteBuf>> call(
+                io.reactivex.netty.protocol.http.client.HttpClientResponse<ByteBuf> response, Integer backoff) {
+            if (!response.getStatus().equals(HttpResponseStatus.SERVICE_UNAVAILABLE)) {
+                return Observable.just(response);
+            }
+            final Observable<io.reactivex.netty.protocol.http.client.HttpClientResponse<ByteBuf>> throttled =
+                    Observable.error(new ClientException(ClientException.ErrorType.SERVER_THROTTLED));
+            if (backoff != null && backoff > 0) {
+                return Observable.timer(backoff, TimeUnit.MILLISECONDS, HashedWheelScheduler.getDefault())
+                        .concatMap(tick -> throttled);
+            }
+            return throttled;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.niws.client.http;
+
+import static com.netflix.client.ClientComponentRegistry.configAware;
+
+import com.netflix.client.ClientComponentContributor;
+import com.netflix.client.ClientComponentRegistry;
+import com.netflix.loadbalancer.PingUrl;
+
+/**
+ * Registers {@link RestClient}, the default client class, and {@link PingUrl} so that they are created without reflection.
+ */
+public class HttpClientComponentContributor implements ClientComponentContributor {
+
+    @Override
+    public void contribute(ClientComponentRegistry registry) {
+        registry.register(RestClient.class, configAware(RestClient::new))
+                .register(PingUrl.class, clientConfig -> new PingUrl());
+    }
+}
@@ -55,6 +55,14 @@ public class HttpClientLoadBalancerErrorHandler extends DefaultLoadBalancerRetry
         return super.isCircuitTrippingException(e);
     }
 
+    /**
+     * @return true if the response has a 5xx status code
+     */
+    @Override
+    public boolean isCircuitTrippingResponse(Object response) {
+        return response instanceof HttpResponse && ((HttpResponse) response).getStatus() / 100 == 5;
+    }
+
 
     @Override
     public boolean isRetriableException(Throwable e, boolean sameServer) {
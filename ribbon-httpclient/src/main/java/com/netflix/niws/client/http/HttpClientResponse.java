@@ -17,26 +17,20 @@
 */
 package com.netflix.niws.client.http;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
 import com.google.common.reflect.TypeToken;
 import com.netflix.client.ClientException;
 import com.netflix.client.config.IClientConfig;
+import com.netflix.client.http.CaseInsensitiveMultiMap;
 import com.netflix.client.http.HttpHeaders;
 import com.netflix.client.http.HttpResponse;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.GenericType;
 
-import javax.ws.rs.core.MultivaluedMap;
 import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.net.URI;
-import java.util.AbstractMap;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * A NIWS   Client Response
@@ -48,48 +42,26 @@ class HttpClientResponse implements HttpResponse {
     
     private final ClientResponse bcr;
             
-    private final Multimap<String, String> headers = ArrayListMultimap.<String, String>create();
-    private final HttpHeaders httpHeaders;
     private final URI requestedURI;
     private final IClientConfig overrideConfig;
+    private volatile CaseInsensitiveMultiMap headers;
 
     public HttpClientResponse(ClientResponse cr, URI requestedURI, IClientConfig config){
         bcr = cr;
         this.requestedURI = requestedURI;
         this.overrideConfig = config;
-        for (Map.Entry<String, List<String>> entry: bcr.getHeaders().entrySet()) {
-            if (entry.getKey() != null && entry.getValue() != null) {
-                headers.putAll(entry.getKey(), entry.getValue());
-            }
-        }
-        httpHeaders =  new HttpHeaders() {
-            @Override
-            public String getFirstValue(String headerName) {
-                return bcr.getHeaders().getFirst(headerName);
-            }
-            @Override
-            public List<String> getAllValues(String headerName) {
-                return bcr.getHeaders().get(headerName);
-            }
-            @Override
-            public List<Entry<String, String>> getAllHeaders() {
-                MultivaluedMap<String, String> map = bcr.getHeaders();
-                List<Entry<String, String>> result = Lists.newArrayList();
-                for (Map.Entry<String, List<String>> header: map.entrySet()) {
-                    String name = header.getKey();
-                    for (String value: header.getValue()) {
-                        result.add(new AbstractMap.SimpleEntry<String, String>(name, value));
-                    }
-                }
-                return result;
-            }
-
-            @Override
-            public boolean containsHeader(String name) {
-                return bcr.getHeaders().containsKey(name);
-            }
-        };
+    }
 
+    /**
+     * Index the response headers on first use, most callers only look at a few of them
+     */
+    private CaseInsensitiveMultiMap headers() {
+        CaseInsensitiveMultiMap result = headers;
+        if (result == null) {
+            result = CaseInsensitiveMultiMap.wrap(bcr.getHeaders());
+            headers = result;
+        }
+        return result;
     }
 
      /**
@@ -108,7 +80,7 @@ class HttpClientResponse implements HttpResponse {
 
     @Override
     public Map<String, Collection<String>> getHeaders() {
-        return headers.asMap();
+        return headers().asMap();
     }
 
     @Override
@@ -169,7 +141,7 @@ class HttpClientResponse implements HttpResponse {
 
     @Override
     public HttpHeaders getHttpHeaders() {
-        return httpHeaders;
+        return headers();
     }
 
     @Override
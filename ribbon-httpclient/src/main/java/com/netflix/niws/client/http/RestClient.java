@@ -58,6 +58,7 @@ import com.netflix.client.config.IClientConfig;
 import com.netflix.client.config.IClientConfigKey;
 import com.netflix.client.http.HttpRequest;
 import com.netflix.client.http.HttpResponse;
+import com.netflix.client.http.HttpRetryAfter;
 import com.netflix.client.ssl.AbstractSslContextFactory;
 import com.netflix.client.ssl.ClientSslSocketFactoryException;
 import com.netflix.client.ssl.URLSslContextFactory;
@@ -67,11 +68,14 @@ import com.netflix.http4.NFHttpMethodRetryHandler;
 import com.netflix.http4.ssl.KeyStoreAwareSocketFactory;
 import com.netflix.loadbalancer.BaseLoadBalancer;
 import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
 import com.netflix.util.Pair;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.WebResource.Builder;
+import com.sun.jersey.api.uri.UriComponent;
 import com.sun.jersey.client.apache4.ApacheHttpClient4;
 import com.sun.jersey.client.apache4.ApacheHttpClient4Handler;
 import com.sun.jersey.client.apache4.config.ApacheHttpClient4Config;
@@ -112,6 +116,7 @@ public class RestClient extends AbstractLoadBalancerAwareClient<HttpRequest, Htt
     private boolean isClientAuthRequired;
     private boolean ignoreUserToken;
     private ApacheHttpClient4Config config;
+    private volatile AsyncRestClient asyncClient;
 
     boolean bFollowRedirects = CommonClientConfigKey.FollowRedirects.defaultValue();
 
@@ -441,6 +446,37 @@ public class RestClient extends AbstractLoadBalancerAwareClient<HttpRequest, Htt
         return restClient;
     }
 
+    /**
+     * @return a non-blocking client that shares this client's load balancer, configuration and Jersey providers.
+     *         It is created on first use and replaced when the load balancer changes.
+     */
+    public AsyncRestClient async() {
+        AsyncRestClient current = asyncClient;
+        if (current == null) {
+            synchronized (this) {
+                current = asyncClient;
+                if (current == null) {
+                    current = new AsyncRestClient(getLoadBalancer(), ncc, restClient);
+                    asyncClient = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void setLoadBalancer(ILoadBalancer lb) {
+        super.setLoadBalancer(lb);
+        AsyncRestClient previous;
+        synchronized (this) {
+            previous = asyncClient;
+            asyncClient = null;
+        }
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
     public void setJerseyClient(Client c) {
         restClient = c;
     }
@@ -508,26 +544,39 @@ public class RestClient extends AbstractLoadBalancerAwareClient<HttpRequest, Htt
             IClientConfig overriddenClientConfig, Object requestEntity) throws Exception {
         HttpClientResponse thisResponse = null;
 
-        final boolean bbFollowRedirects = Optional.ofNullable(overriddenClientConfig)
+        final Optional<IClientConfig> requestConfig = Optional.ofNullable(overriddenClientConfig);
+        final boolean bbFollowRedirects = requestConfig
                 .flatMap(config -> config.getIfSet(CommonClientConfigKey.FollowRedirects))
                 .orElse(bFollowRedirects);
 
-        restClient.setFollowRedirects(bbFollowRedirects);
-
         if (logger.isDebugEnabled()) {
             logger.debug("RestClient sending new Request(" + verb
                     + ": ) " + uri);
         }
 
-
-        WebResource xResource = restClient.resource(uri.toString());
-        if (params != null) {
-            for (Map.Entry<String, Collection<String>> entry: params.entrySet()) {
-                String name = entry.getKey();
-                for (String value: entry.getValue()) {
-                    xResource = xResource.queryParam(name, value);
-                }
-            }
+        WebResource xResource;
+        if (params == null || params.isEmpty()) {
+            xResource = restClient.resource(uri);
+        } else {
+            StringBuilder sb = new StringBuilder(uri.toString());
+            appendQueryParams(sb, uri.getRawQuery() != null, params);
+            xResource = restClient.resource(sb.toString());
+        }
+
+        // Options of this request are set on the WebResource, which is not shared, rather than on the Jersey client
+        // The connect timeout is not one of them: the Apache handler only applies it to the whole HttpClient
+        xResource.setProperty(ApacheHttpClient4Config.PROPERTY_FOLLOW_REDIRECTS, bbFollowRedirects);
+        int requestReadTimeout = requestConfig
+                .flatMap(config -> config.getIfSet(CommonClientConfigKey.ReadTimeout))
+                .orElse(readTimeout);
+        // stats of the server the request goes to, looked up at most once per request and only when needed
+        ServerStats serverStats = null;
+        if (isAdaptiveReadTimeoutEnabled()) {
+            serverStats = getServerStats(uri);
+            requestReadTimeout = getAdaptiveReadTimeout(serverStats, requestReadTimeout);
+        }
+        if (requestReadTimeout != readTimeout) {
+            xResource.setProperty(ApacheHttpClient4Config.PROPERTY_READ_TIMEOUT, requestReadTimeout);
         }
         ClientResponse jerseyResponse;
 
@@ -569,6 +618,18 @@ public class RestClient extends AbstractLoadBalancerAwareClient<HttpRequest, Htt
         }
 
         thisResponse = new HttpClientResponse(jerseyResponse, uri, overriddenClientConfig);
+        String loadHeader = getServerLoadHeaderName();
+        boolean throttled = thisResponse.getStatus() == 429 || thisResponse.getStatus() == 503;
+        if (serverStats == null && (loadHeader != null || throttled)) {
+            serverStats = getServerStats(uri);
+        }
+        if (loadHeader != null) {
+            noteServerLoad(serverStats, jerseyResponse.getHeaders().getFirst(loadHeader));
+        }
+        if (throttled) {
+            noteServerThrottled(serverStats, 
+                    HttpRetryAfter.parseMillis(jerseyResponse.getHeaders().getFirst(HttpRetryAfter.HEADER_NAME)));
+        }
         if (thisResponse.getStatus() == 503){
             thisResponse.close();
             throw new ClientException(ClientException.ErrorType.SERVER_THROTTLED);
@@ -576,6 +637,33 @@ public class RestClient extends AbstractLoadBalancerAwareClient<HttpRequest, Htt
         return thisResponse;
     }
 
+    /**
+     * Get the stats of the server a request URI points to, filling in the default port of the scheme
+     * so that the stats are the ones the load balancer keeps for that server.
+     */
+    private ServerStats getServerStats(URI uri) {
+        Pair<String, Integer> schemeAndPort = deriveSchemeAndPortFromPartialUri(uri);
+        return getServerStats(new Server(uri.getHost(), schemeAndPort.second()));
+    }
+
+    /**
+     * Append the query parameters to a URI in a single pass, encoding them the same way as
+     * {@link WebResource#queryParam(String, String)} but without creating a copy of the resource per parameter.
+     *
+     * @param hasQuery true if sb already contains a query
+     */
+    static void appendQueryParams(StringBuilder sb, boolean hasQuery, Map<String, Collection<String>> params) {
+        char separator = hasQuery ? '&' : '?';
+        for (Map.Entry<String, Collection<String>> entry: params.entrySet()) {
+            String name = UriComponent.contextualEncode(entry.getKey(), UriComponent.Type.QUERY_PARAM);
+            for (String value: entry.getValue()) {
+                sb.append(separator).append(name).append('=')
+                  .append(UriComponent.contextualEncode(value, UriComponent.Type.QUERY_PARAM));
+                separator = '&';
+            }
+        }
+    }
+
     @Override
     protected boolean isRetriableException(Throwable e) {
         if (e instanceof ClientException
@@ -639,7 +727,7 @@ public class RestClient extends AbstractLoadBalancerAwareClient<HttpRequest, Htt
         if (!request.isRetriable()) {
             return new RequestSpecificRetryHandler(false, false, this.getRetryHandler(), requestConfig);
         }
-        if (this.ncc.get(CommonClientConfigKey.OkToRetryOnAllOperations, false)) {
+        if (this.ncc.getSnapshot().isOkToRetryOnAllOperations()) {
             return new RequestSpecificRetryHandler(true, true, this.getRetryHandler(), requestConfig);
         }
         if (request.getVerb() != HttpRequest.Verb.GET) {
@@ -655,6 +743,10 @@ public class RestClient extends AbstractLoadBalancerAwareClient<HttpRequest, Htt
 	        ((BaseLoadBalancer) lb).shutdown();
 	    }
 	    NFHttpClientFactory.shutdownNFHttpClient(restClientName);
+	    AsyncRestClient async = asyncClient;
+	    if (async != null) {
+	        async.shutdown();
+	    }
 	}
 }
 
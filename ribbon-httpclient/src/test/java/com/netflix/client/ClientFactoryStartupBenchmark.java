@@ -0,0 +1,70 @@
+/*
+*
+* Copyright 2013 Netflix, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*
+*/
+package com.netflix.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.config.ConfigurationManager;
+
+/**
+ * Measures how long it takes to create a large number of named clients, serially and with
+ * {@link ClientFactory#initializeNamedClients(java.util.Collection, int)}. The serial run is done twice, with the
+ * components created by reflection only (empty {@link ClientComponentRegistry}) and with the registered factories.
+ * <p>
+ * Usage: ClientFactoryStartupBenchmark [numberOfClients] [parallelism]
+ */
+public class ClientFactoryStartupBenchmark {
+
+    public static void main(String[] args) {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        // load the classes involved before measuring
+        ClientFactory.initializeNamedClients(createNames("warmupBenchmark", Math.min(clients, 50)), 1);
+
+        ClientComponentRegistry.DEFAULT.clear();
+        long reflectionNanos = initialize(createNames("reflectionBenchmark", clients), 1);
+        ClientComponentRegistry.DEFAULT.loadContributors();
+
+        long serialNanos = initialize(createNames("serialBenchmark", clients), 1);
+        long parallelNanos = initialize(createNames("parallelBenchmark", clients), parallelism);
+
+        System.out.printf("%d clients, serial with reflection only: %d ms, serial: %d ms, parallel(%d): %d ms%n", clients,
+                TimeUnit.NANOSECONDS.toMillis(reflectionNanos), TimeUnit.NANOSECONDS.toMillis(serialNanos),
+                parallelism, TimeUnit.NANOSECONDS.toMillis(parallelNanos));
+        System.exit(0);
+    }
+
+    private static long initialize(List<String> names, int parallelism) {
+        long start = System.nanoTime();
+        ClientFactory.initializeNamedClients(names, parallelism);
+        return System.nanoTime() - start;
+    }
+
+    private static List<String> createNames(String prefix, int count) {
+        List<String> names = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            String name = prefix + i;
+            ConfigurationManager.getConfigInstance().setProperty(name + ".ribbon.listOfServers", "localhost:" + (8000 + i % 1000));
+            names.add(name);
+        }
+        return names;
+    }
+}
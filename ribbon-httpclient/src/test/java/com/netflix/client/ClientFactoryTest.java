@@ -19,10 +19,14 @@ package com.netflix.client;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -31,6 +35,7 @@ import com.netflix.config.ConfigurationManager;
 import com.netflix.loadbalancer.ConfigurationBasedServerList;
 import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
 import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ZoneAwareLoadBalancer;
 import com.netflix.niws.client.http.RestClient;
 
 public class ClientFactoryTest {
@@ -60,4 +65,37 @@ public class ClientFactoryTest {
 		assertEquals(expected, result);
 	}
 
+	@Test
+	public void testBuiltInComponentsRegistered() {
+		assertTrue(ClientComponentRegistry.DEFAULT.isRegistered(RestClient.class.getName()));
+		assertTrue(ClientComponentRegistry.DEFAULT.isRegistered(ZoneAwareLoadBalancer.class.getName()));
+		assertTrue(ClientComponentRegistry.DEFAULT.isRegistered(ConfigurationBasedServerList.class.getName()));
+		assertTrue(client.getLoadBalancer() instanceof ZoneAwareLoadBalancer);
+	}
+
+	@Test
+	public void testInitializeNamedClientsInParallel() {
+		List<String> names = new ArrayList<String>();
+		for (int i = 0; i < 20; i++) {
+			String name = "parallelInit" + i;
+			ConfigurationManager.getConfigInstance().setProperty(name + ".ribbon.listOfServers", "www.example1.come:80");
+			names.add(name);
+		}
+		names.add("junit");
+		assertEquals(names.size(), ClientFactory.initializeNamedClients(names, 4));
+		assertSame(client, ClientFactory.getNamedClient("junit"));
+		for (String name : names) {
+			assertNotNull(ClientFactory.getNamedClient(name));
+		}
+	}
+
+	@Test
+	public void testLazyNamedClient() {
+		ConfigurationManager.getConfigInstance().setProperty("lazyClient.ribbon.listOfServers", "www.example1.come:80");
+		Supplier<IClient> lazy = ClientFactory.lazyNamedClient("lazyClient");
+		IClient created = lazy.get();
+		assertTrue(created instanceof RestClient);
+		assertSame(created, lazy.get());
+		assertSame(created, ClientFactory.getNamedClient("lazyClient"));
+	}
 }
@@ -0,0 +1,89 @@
+/*
+*
+* Copyright 2013 Netflix, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*
+*/
+package com.netflix.client.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+public class CaseInsensitiveMultiMapTest {
+
+    @Test
+    public void testAddAndLookup() {
+        CaseInsensitiveMultiMap headers = new CaseInsensitiveMultiMap();
+        headers.addHeader("Accept", "application/json");
+        headers.addHeader("ACCEPT", "application/xml");
+        headers.addHeader("accept", "application/json");
+        headers.addHeader("X-Request-Id", "1");
+
+        assertEquals("application/json", headers.getFirstValue("accept"));
+        assertEquals(Arrays.asList("application/json", "application/xml"), headers.getAllValues("Accept"));
+        assertTrue(headers.containsHeader("x-request-id"));
+        assertFalse(headers.containsHeader("X-Request"));
+        assertNull(headers.getFirstValue("Content-Type"));
+        assertTrue(headers.getAllValues("Content-Type").isEmpty());
+
+        List<Entry<String, String>> all = headers.getAllHeaders();
+        assertEquals(3, all.size());
+        assertEquals("Accept", all.get(0).getKey());
+        assertEquals("X-Request-Id", all.get(2).getKey());
+
+        Map<String, Collection<String>> map = headers.asMap();
+        assertEquals(2, map.size());
+        assertEquals(2, map.get("Accept").size());
+    }
+
+    @Test
+    public void testManyHeaders() {
+        CaseInsensitiveMultiMap headers = new CaseInsensitiveMultiMap();
+        for (int i = 0; i < 100; i++) {
+            headers.addHeader("Header-" + i, String.valueOf(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), headers.getFirstValue("HEADER-" + i));
+        }
+        assertEquals(100, headers.getAllHeaders().size());
+    }
+
+    @Test
+    public void testWrap() {
+        Map<String, List<String>> source = new LinkedHashMap<String, List<String>>();
+        source.put(null, Arrays.asList("HTTP/1.1 200 OK"));
+        source.put("Content-Type", Arrays.asList("text/plain"));
+        source.put("Set-Cookie", Arrays.asList("a=1", "b=2"));
+        source.put("set-cookie", Arrays.asList("c=3"));
+        CaseInsensitiveMultiMap headers = CaseInsensitiveMultiMap.wrap(source);
+
+        assertEquals("text/plain", headers.getFirstValue("content-type"));
+        assertEquals(Arrays.asList("a=1", "b=2", "c=3"), headers.getAllValues("SET-COOKIE"));
+        assertEquals(4, headers.getAllHeaders().size());
+        assertEquals(2, headers.asMap().size());
+        // the source map is left alone
+        assertEquals(2, source.get("Set-Cookie").size());
+    }
+}
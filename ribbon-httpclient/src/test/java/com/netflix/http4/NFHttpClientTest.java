@@ -17,24 +17,46 @@
 */
 package com.netflix.http4;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.NoHttpResponseException;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.ExecutionContext;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.junit.ClassRule;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.Property;
 import com.netflix.client.testutil.MockHttpServer;
+import com.netflix.config.ConfigurationManager;
 
 public class NFHttpClientTest {
     @ClassRule
@@ -69,6 +91,111 @@ public class NFHttpClientTest {
         assertTrue(contentLen > 0);
     }
 
+    @Test
+    public void testBackgroundStaleCheck() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("BackgroundStaleCheckTest.ribbon." + CommonClientConfigKey.BackgroundStaleCheckEnabled.key(), "true");
+        NFHttpClient client = NFHttpClientFactory.getNamedNFHttpClient("BackgroundStaleCheckTest");
+        assertTrue(client.getConnectionManager() instanceof StripedConnectionManager);
+        assertFalse(HttpConnectionParams.isStaleCheckingEnabled(client.getParams()));
+        client.setHttpRequestRetryHandler(new NFHttpMethodRetryHandler("BackgroundStaleCheckTest", 0, false, 0));
+        assertTrue(client.getHttpRequestRetryHandler() instanceof StaleConnectionRetryHandler);
+
+        HttpResponse response = client.execute(new HttpGet(server.getServerURI()));
+        String content = EntityUtils.toString(response.getEntity());
+        assertTrue(content.length() > 0);
+        NFHttpClientFactory.shutdownNFHttpClient("BackgroundStaleCheckTest");
+    }
+
+    @Test
+    public void testStaleConnectionRetryHandler() {
+        StaleConnectionRetryHandler handler = new StaleConnectionRetryHandler("test", new NFHttpMethodRetryHandler("test", 0, false, 0));
+        HttpContext context = new BasicHttpContext();
+        context.setAttribute(ExecutionContext.HTTP_REQUEST, new HttpPost("/"));
+        context.setAttribute(ExecutionContext.HTTP_REQ_SENT, Boolean.TRUE);
+
+        // the POST may have been processed
+        assertFalse(handler.retryRequest(new NoHttpResponseException("closed"), 1, context));
+        assertFalse(handler.retryRequest(new SocketException("Connection reset"), 1, context));
+        context.setAttribute(ExecutionContext.HTTP_REQ_SENT, Boolean.FALSE);
+        assertTrue(handler.retryRequest(new NoHttpResponseException("closed"), 1, context));
+        context.setAttribute(ExecutionContext.HTTP_REQUEST, new HttpGet("/"));
+        context.setAttribute(ExecutionContext.HTTP_REQ_SENT, Boolean.TRUE);
+        assertTrue(handler.retryRequest(new NoHttpResponseException("closed"), 1, context));
+        assertFalse(handler.retryRequest(new NoHttpResponseException("closed"), 2, context));
+        assertTrue(handler.retryRequest(new SocketException("Connection reset"), 1, context));
+        assertFalse(handler.retryRequest(new SocketTimeoutException("Read timed out"), 1, context));
+    }
+
+    @Test
+    public void testPostIsNotRetriedWithoutResponse() throws Exception {
+        // reads each request and closes the connection without answering
+        final ServerSocket noResponseServer = new ServerSocket(0);
+        final AtomicInteger requests = new AtomicInteger();
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!noResponseServer.isClosed()) {
+                    try {
+                        Socket socket = noResponseServer.accept();
+                        try {
+                            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "ISO-8859-1"));
+                            int contentLength = 0;
+                            String line;
+                            while ((line = reader.readLine()) != null && line.length() > 0) {
+                                if (line.toLowerCase().startsWith("content-length:")) {
+                                    contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+                                }
+                            }
+                            for (int i = 0; i < contentLength && reader.read() != -1; i++) {
+                            }
+                            requests.incrementAndGet();
+                        } finally {
+                            socket.close();
+                        }
+                    } catch (IOException e) { // NOPMD
+                    }
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        ConfigurationManager.getConfigInstance().setProperty("NoResponsePostTest.ribbon." + CommonClientConfigKey.BackgroundStaleCheckEnabled.key(), "true");
+        NFHttpClient client = NFHttpClientFactory.getNamedNFHttpClient("NoResponsePostTest");
+        client.setHttpRequestRetryHandler(new NFHttpMethodRetryHandler("NoResponsePostTest", 0, false, 0));
+        try {
+            HttpPost post = new HttpPost("http://localhost:" + noResponseServer.getLocalPort() + "/");
+            post.setEntity(new StringEntity("content"));
+            try {
+                client.execute(post);
+                fail("Exception expected");
+            } catch (IOException e) { // NOPMD
+            }
+            assertEquals(1, requests.get());
+        } finally {
+            NFHttpClientFactory.shutdownNFHttpClient("NoResponsePostTest");
+            noResponseServer.close();
+        }
+    }
+
+    @Test
+    public void testKeepAliveStrategy() {
+        NFHttpKeepAliveStrategy strategy = new NFHttpKeepAliveStrategy(Property.of(-1), Property.of(-1), Property.of(500));
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        assertEquals(-1, strategy.getKeepAliveDuration(response, null));
+        response.setHeader("Keep-Alive", "timeout=5, max=100");
+        assertEquals(4500, strategy.getKeepAliveDuration(response, null));
+
+        strategy = new NFHttpKeepAliveStrategy(Property.of(10000), Property.of(3000), Property.of(500));
+        assertEquals(3000, strategy.getKeepAliveDuration(response, null));
+        response.removeHeaders("Keep-Alive");
+        assertEquals(3000, strategy.getKeepAliveDuration(response, null));
+        // a timeout shorter than the margin still expires the connection
+        response.setHeader("Keep-Alive", "timeout=0");
+        assertEquals(1, strategy.getKeepAliveDuration(response, null));
+        assertTrue(NFHttpClientFactory.getDefaultClient().getConnectionKeepAliveStrategy() instanceof NFHttpKeepAliveStrategy);
+    }
+
     @Ignore
     public void testMultiThreadedClient() throws Exception {
 
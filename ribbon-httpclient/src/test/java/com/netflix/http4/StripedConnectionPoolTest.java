@@ -0,0 +1,172 @@
+/*
+ *
+ * Copyright 2013 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.http4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.impl.conn.tsccm.BasicPoolEntry;
+import org.apache.http.util.EntityUtils;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.testutil.MockHttpServer;
+import com.netflix.config.ConfigurationManager;
+
+public class StripedConnectionPoolTest {
+
+    @ClassRule
+    public static MockHttpServer server = new MockHttpServer();
+
+    private static final HttpRoute route1 = new HttpRoute(new HttpHost("host1", 80));
+    private static final HttpRoute route2 = new HttpRoute(new HttpHost("host2", 80));
+
+    private static StripedConnectionPool newPool(String name, int maxPerRoute, int maxTotal) {
+        return new StripedConnectionPool(name, new DefaultClientConnectionOperator(SchemeRegistryFactory.createDefault()),
+                new ConnPerRouteBean(maxPerRoute), maxTotal, -1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testMostRecentlyReleasedIsReused() throws Exception {
+        StripedConnectionPool pool = newPool("StripedConnectionPoolTest-lifo", 2, 10);
+        BasicPoolEntry first = pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS);
+        BasicPoolEntry second = pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS);
+        pool.freeEntry(first, true, -1, TimeUnit.MILLISECONDS);
+        pool.freeEntry(second, true, -1, TimeUnit.MILLISECONDS);
+
+        assertSame(second, pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS));
+        assertSame(first, pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS));
+        assertEquals(2, pool.getConnectionsInPool());
+        assertEquals(2, pool.getConnectionsInPool(route1));
+        assertEquals(4, pool.getRequestsCount());
+        assertEquals(2, pool.getCreatedEntryCount());
+        assertEquals(2, pool.getFreeEntryCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testTimeoutWhenRouteIsExhausted() throws Exception {
+        StripedConnectionPool pool = newPool("StripedConnectionPoolTest-timeout", 1, 10);
+        pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS);
+        // other routes are not affected
+        pool.requestPoolEntry(route2, null).getPoolEntry(1, TimeUnit.SECONDS);
+        try {
+            pool.requestPoolEntry(route1, null).getPoolEntry(100, TimeUnit.MILLISECONDS);
+            fail("ConnectionPoolTimeoutException expected");
+        } catch (ConnectionPoolTimeoutException e) {
+            // expected
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testWaiterGetsReleasedEntry() throws Exception {
+        final StripedConnectionPool pool = newPool("StripedConnectionPoolTest-wait", 1, 10);
+        final BasicPoolEntry entry = pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS);
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                pool.freeEntry(entry, true, -1, TimeUnit.MILLISECONDS);
+            }
+        }.start();
+        assertSame(entry, pool.requestPoolEntry(route1, null).getPoolEntry(5, TimeUnit.SECONDS));
+        assertEquals(1, pool.getReleaseCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testIdleEntryOfOtherRouteIsDeletedWhenTotalIsReached() throws Exception {
+        StripedConnectionPool pool = newPool("StripedConnectionPoolTest-total", 2, 1);
+        BasicPoolEntry entry = pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS);
+        pool.freeEntry(entry, true, -1, TimeUnit.MILLISECONDS);
+
+        pool.requestPoolEntry(route2, null).getPoolEntry(1, TimeUnit.SECONDS);
+        assertEquals(1, pool.getConnectionsInPool());
+        assertEquals(0, pool.getConnectionsInPool(route1));
+        assertEquals(1, pool.getConnectionsInPool(route2));
+        assertEquals(1, pool.getDeleteCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testIdleConnectionsAreClosed() throws Exception {
+        StripedConnectionPool pool = newPool("StripedConnectionPoolTest-idle", 2, 10);
+        BasicPoolEntry entry = pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS);
+        pool.freeEntry(entry, true, -1, TimeUnit.MILLISECONDS);
+        Thread.sleep(50);
+        pool.closeIdleConnections(10, TimeUnit.MILLISECONDS);
+        assertEquals(0, pool.getConnectionsInPool());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testStaleConnectionsAreClosed() throws Exception {
+        StripedConnectionPool pool = newPool("StripedConnectionPoolTest-stale", 2, 10);
+        BasicPoolEntry entry = pool.requestPoolEntry(route1, null).getPoolEntry(1, TimeUnit.SECONDS);
+        pool.freeEntry(entry, true, -1, TimeUnit.MILLISECONDS);
+        // recently used connections are not checked
+        pool.closeStaleConnections(1, TimeUnit.MINUTES);
+        assertEquals(1, pool.getConnectionsInPool());
+        Thread.sleep(50);
+        // the connection was never opened, so it is stale
+        pool.closeStaleConnections(10, TimeUnit.MILLISECONDS);
+        assertEquals(0, pool.getConnectionsInPool());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testConnectionPoolCounters() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("StripedConnectionPoolTest.ribbon." + CommonClientConfigKey.UseStripedConnectionPool.key(), "true");
+        NFHttpClient client = NFHttpClientFactory.getNamedNFHttpClient("StripedConnectionPoolTest");
+        assertTrue(client.getConnectionManager() instanceof StripedConnectionManager);
+        MonitoredConnectionManager connectionPoolManager = (MonitoredConnectionManager) client.getConnectionManager();
+        assertTrue(connectionPoolManager.getConnectionPool() instanceof StripedConnectionPool);
+        NamedConnectionPool connectionPool = (NamedConnectionPool) connectionPoolManager.getConnectionPool();
+        for (int i = 0; i < 10; i++) {
+            HttpResponse response = client.execute(new HttpGet(server.getServerPath("/")));
+            EntityUtils.consume(response.getEntity());
+            int statusCode = response.getStatusLine().getStatusCode();
+            assertTrue(statusCode == 200 || statusCode == 302);
+        }
+        assertEquals(1, connectionPool.getCreatedEntryCount());
+        assertEquals(10, connectionPool.getRequestsCount());
+        assertEquals(9, connectionPool.getFreeEntryCount());
+        assertEquals(0, connectionPool.getDeleteCount());
+        assertEquals(connectionPool.getReleaseCount(), connectionPool.getRequestsCount());
+        assertEquals(1, connectionPoolManager.getConnectionsInPool());
+        NFHttpClientFactory.shutdownNFHttpClient("StripedConnectionPoolTest");
+    }
+}
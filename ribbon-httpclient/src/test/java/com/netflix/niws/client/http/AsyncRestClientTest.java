@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.niws.client.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.mockwebserver.MockResponse;
+import com.google.mockwebserver.MockWebServer;
+import com.google.mockwebserver.RecordedRequest;
+import com.netflix.client.ClientFactory;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.client.http.HttpRequest;
+import com.netflix.client.http.HttpRequest.Verb;
+import com.netflix.client.http.HttpResponse;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+
+public class AsyncRestClientTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws IOException {
+        server = new MockWebServer();
+        server.play();
+    }
+
+    @After
+    public void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    private RestClient createClient(String name) throws Exception {
+        IClientConfig config = DefaultClientConfigImpl.getClientConfigWithDefaultValues(name);
+        config.set(CommonClientConfigKey.MaxAutoRetries, 1);
+        config.set(CommonClientConfigKey.MaxAutoRetriesNextServer, 0);
+        RestClient client = (RestClient) ClientFactory.registerClientFromProperties(name, config);
+        BaseLoadBalancer lb = new BaseLoadBalancer();
+        lb.addServers(Arrays.asList(new Server("localhost", server.getPort())));
+        client.setLoadBalancer(lb);
+        return client;
+    }
+
+    @Test
+    public void testSubmitWithLoadBalancer() throws Exception {
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-type", "text/plain")
+                .setHeader("X-Test", "value")
+                .setBody("Hello"));
+        RestClient client = createClient("asyncLB");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("/test"))
+                .queryParams("name", "a b")
+                .queryParams("name", "a&b")
+                .header("X-Request", "1")
+                .build();
+        HttpResponse response = client.async().execute(request).get(10, TimeUnit.SECONDS);
+        assertEquals(200, response.getStatus());
+        assertEquals("value", response.getHttpHeaders().getFirstValue("X-Test"));
+        assertEquals("Hello", response.getEntity(String.class));
+
+        RecordedRequest recorded = server.takeRequest();
+        assertEquals("GET /test?name=a+b&name=a%26b HTTP/1.1", recorded.getRequestLine());
+        assertEquals("1", recorded.getHeader("X-Request"));
+
+        ServerStats stats = client.getServerStats(new Server("localhost", server.getPort()));
+        assertEquals(1, stats.getTotalRequestsCount());
+        assertSame(client.async(), client.async());
+    }
+
+    @Test
+    public void testPostEntity() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(201));
+        RestClient client = createClient("asyncPost");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("/items"))
+                .verb(Verb.POST)
+                .header("Content-Type", "text/plain")
+                .entity("payload")
+                .build();
+        HttpResponse response = client.async().submit(request).toBlocking().single();
+        assertEquals(201, response.getStatus());
+        RecordedRequest recorded = server.takeRequest();
+        assertEquals("POST", recorded.getMethod());
+        assertEquals("payload", recorded.getUtf8Body());
+    }
+
+    @Test
+    public void testRetryOnThrottled() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("OK"));
+        RestClient client = createClient("asyncRetry");
+        HttpRequest request = HttpRequest.newBuilder().uri(new URI("/")).build();
+        HttpResponse response = client.async().submit(request).toBlocking().single();
+        assertEquals(200, response.getStatus());
+        assertEquals("OK", response.getEntity(String.class));
+        assertEquals(2, server.getRequestCount());
+    }
+}
@@ -18,6 +18,7 @@
 package com.netflix.niws.client.http;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.IOException;
 import java.net.URI;
@@ -35,6 +36,7 @@ import com.netflix.client.config.IClientConfig;
 import com.netflix.client.config.IClientConfigKey;
 import com.netflix.client.http.HttpRequest;
 import com.netflix.client.http.HttpResponse;
+import com.sun.jersey.api.client.config.ClientConfig;
 
 public class FollowRedirectTest {
     
@@ -93,5 +95,19 @@ public class FollowRedirectTest {
         assertEquals(200, response.getStatus());      
     }
 
+    @Test
+    public void testRedirectOverriddenPerRequest() throws Exception {
+        IClientConfig config = DefaultClientConfigImpl
+                .getClientConfigWithDefaultValues("myclient3")
+                .set(IClientConfigKey.Keys.FollowRedirects, Boolean.TRUE);
+        ClientFactory.registerClientFromProperties("myclient3", config);
+        RestClient client = (RestClient) ClientFactory.getNamedClient("myclient3");
+        IClientConfig requestConfig = DefaultClientConfigImpl.getEmptyConfig()
+                .set(IClientConfigKey.Keys.FollowRedirects, Boolean.FALSE);
+        HttpRequest request = HttpRequest.newBuilder().uri(new URI("http://localhost:" + redirectingServer.getPort())).build();
+        HttpResponse response = client.execute(request, requestConfig);
+        assertEquals(302, response.getStatus());
+        // the shared Jersey client is left untouched
+        assertNull(client.getJerseyClient().getProperties().get(ClientConfig.PROPERTY_FOLLOW_REDIRECTS));
+    }
 }
-
@@ -22,10 +22,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.ClassRule;
@@ -33,6 +38,7 @@ import org.junit.Test;
 
 import com.netflix.client.ClientFactory;
 import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.DefaultClientConfigImpl;
 import com.netflix.client.http.HttpRequest;
 import com.netflix.client.http.HttpResponse;
 import com.netflix.client.testutil.MockHttpServer;
@@ -140,4 +146,40 @@ public class RestClientTest {
     private void assertStatusIsOk(int status) {
         assertTrue(status == 200 || status == 302);
     }
+
+    @Test
+    public void testAppendQueryParams() {
+        Map<String, Collection<String>> params = new LinkedHashMap<String, Collection<String>>();
+        params.put("a", Arrays.asList("1", "x&y"));
+        params.put("b&c", Arrays.asList("%20"));
+        StringBuilder sb = new StringBuilder("http://localhost/path");
+        RestClient.appendQueryParams(sb, false, params);
+        assertEquals("http://localhost/path?a=1&a=x%26y&b%26c=%20", sb.toString());
+        sb = new StringBuilder("/path?z=0");
+        RestClient.appendQueryParams(sb, true, params);
+        assertEquals("/path?z=0&a=1&a=x%26y&b%26c=%20", sb.toString());
+    }
+
+    @Test
+    public void testReadTimeoutOverriddenPerRequest() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("RestClientTest-readTimeout.ribbon." + CommonClientConfigKey.ReadTimeout, "10000");
+        RestClient client = (RestClient) ClientFactory.getNamedClient("RestClientTest-readTimeout");
+        HttpRequest request = HttpRequest.newBuilder().uri(new URI(server.getServerPath("/ok?delay=1000"))).build();
+        long start = System.currentTimeMillis();
+        try {
+            client.execute(request, DefaultClientConfigImpl.getEmptyConfig().set(CommonClientConfigKey.ReadTimeout, 200));
+            fail("SocketTimeoutException expected");
+        } catch (Exception e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            assertTrue(cause instanceof SocketTimeoutException);
+        }
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        // other requests still use the read timeout of the client
+        HttpResponse response = client.execute(request);
+        assertEquals(200, response.getStatus());
+        response.close();
+    }
 }
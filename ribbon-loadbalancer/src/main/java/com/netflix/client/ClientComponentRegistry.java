@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.client;
+
+import com.netflix.client.config.IClientConfig;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Registry of factories for client components (clients, load balancers, rules, pings, server lists, filters ...)
+ * keyed by the class name used in the client configuration. {@link ClientFactory#instantiateInstanceWithClientConfig(String, IClientConfig)}
+ * uses a registered factory when there is one and only falls back to reflection for class names that are not registered.
+ * <p>
+ * A registered factory must initialize the instance the same way the reflective path would, i.e. call
+ * {@link IClientConfigAware#initWithNiwsConfig(IClientConfig)} for {@link IClientConfigAware} types. Use
+ * {@link #configAware(Supplier)} for those.
+ */
+public class ClientComponentRegistry {
+
+    public static final ClientComponentRegistry DEFAULT = new ClientComponentRegistry().loadContributors();
+
+    private final Map<String, Function<IClientConfig, ?>> factories = new ConcurrentHashMap<String, Function<IClientConfig, ?>>();
+
+    /**
+     * Apply all {@link ClientComponentContributor}s discoverable via the {@link ServiceLoader}
+     */
+    public ClientComponentRegistry loadContributors() {
+        for (ClientComponentContributor contributor : ServiceLoader.load(ClientComponentContributor.class)) {
+            contributor.contribute(this);
+        }
+        return this;
+    }
+
+    public <T> ClientComponentRegistry register(Class<T> type, Function<IClientConfig, ? extends T> factory) {
+        return register(type.getName(), factory);
+    }
+
+    public ClientComponentRegistry register(String className, Function<IClientConfig, ?> factory) {
+        factories.put(className, factory);
+        return this;
+    }
+
+    /**
+     * Remove all registered factories, so that every instance is created using reflection
+     */
+    public ClientComponentRegistry clear() {
+        factories.clear();
+        return this;
+    }
+
+    public boolean isRegistered(String className) {
+        return factories.containsKey(className);
+    }
+
+    /**
+     * @return the instance created by the factory registered for the class name, or null if there is none
+     */
+    public Object create(String className, IClientConfig clientConfig) {
+        Function<IClientConfig, ?> factory = factories.get(className);
+        return factory == null ? null : factory.apply(clientConfig);
+    }
+
+    /**
+     * Adapt a no-arg constructor of an {@link IClientConfigAware} type to a factory that calls
+     * {@link IClientConfigAware#initWithNiwsConfig(IClientConfig)} on the new instance.
+     */
+    public static <T extends IClientConfigAware> Function<IClientConfig, T> configAware(Supplier<T> constructor) {
+        return clientConfig -> {
+            T instance = constructor.get();
+            instance.initWithNiwsConfig(clientConfig);
+            return instance;
+        };
+    }
+}
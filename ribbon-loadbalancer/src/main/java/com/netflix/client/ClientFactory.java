@@ -27,13 +27,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
  * A factory that creates client, load balancer and client configuration instances from properties. It also keeps mappings of client names to 
  * the  created instances.
+ * <p>
+ * Creation is serialized per client name only, so different named clients can be created concurrently, see
+ * {@link #initializeNamedClients(Collection, int)}. Components whose class names are registered with
+ * {@link ClientComponentRegistry#DEFAULT} are created without reflection.
  * 
  * @author awang
  *
@@ -43,6 +55,7 @@ public class ClientFactory {
     private static Map<String, IClient<?,?>> simpleClientMap = new ConcurrentHashMap<String, IClient<?,?>>();
     private static Map<String, ILoadBalancer> namedLBMap = new ConcurrentHashMap<String, ILoadBalancer>();
     private static ConcurrentHashMap<String, IClientConfig> namedConfig = new ConcurrentHashMap<String, IClientConfig>();
+    private static final ConcurrentHashMap<String, Object> namedLocks = new ConcurrentHashMap<String, Object>();
     
     private static Logger logger = LoggerFactory.getLogger(ClientFactory.class);
 
@@ -54,7 +67,13 @@ public class ClientFactory {
      * @param clientConfig
      * @throws ClientException if any errors occurs in the process, or if the client with the same name already exists
      */
-    public static synchronized IClient<?, ?> registerClientFromProperties(String restClientName, IClientConfig clientConfig) throws ClientException { 
+    public static IClient<?, ?> registerClientFromProperties(String restClientName, IClientConfig clientConfig) throws ClientException { 
+        synchronized (lockFor(restClientName)) {
+            return doRegisterClientFromProperties(restClientName, clientConfig);
+        }
+    }
+
+    private static IClient<?, ?> doRegisterClientFromProperties(String restClientName, IClientConfig clientConfig) throws ClientException { 
     	IClient<?, ?> client = null;
     	ILoadBalancer loadBalancer = null;
     	if (simpleClientMap.get(restClientName) != null) {
@@ -92,14 +111,101 @@ public class ClientFactory {
      * 
      * @throws RuntimeException if an error occurs in creating the client.
      */
-    public static synchronized IClient getNamedClient(String name) {
-        if (simpleClientMap.get(name) != null) {
-            return simpleClientMap.get(name);
+    public static IClient getNamedClient(String name) {
+        IClient<?, ?> client = simpleClientMap.get(name);
+        if (client != null) {
+            return client;
+        }
+        synchronized (lockFor(name)) {
+            client = simpleClientMap.get(name);
+            if (client != null) {
+                return client;
+            }
+            try {
+                return registerClientFromProperties(name, getNamedConfig(name));
+            } catch (ClientException e) {
+                throw new RuntimeException("Unable to create client", e);
+            }
+        }
+    }
+
+    /**
+     * Return a handle to the named client which creates the client with {@link #getNamedClient(String)} on first use
+     * instead of at the time the handle is obtained.
+     */
+    public static Supplier<IClient> lazyNamedClient(String name) {
+        return new Supplier<IClient>() {
+            private volatile IClient client;
+
+            @Override
+            public IClient get() {
+                IClient current = client;
+                if (current == null) {
+                    current = getNamedClient(name);
+                    client = current;
+                }
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Eagerly create the named clients, using up to parallelism threads. Clients that already exist are left as they are.
+     * A client that fails to initialize is logged and skipped, so that it is created (and the error surfaced) on first
+     * use instead.
+     *
+     * @return the number of named clients available after initialization
+     */
+    public static int initializeNamedClients(Collection<String> names, int parallelism) {
+        if (parallelism <= 1 || names.size() <= 1) {
+            int count = 0;
+            for (String name : names) {
+                if (initializeNamedClient(name)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, names.size()), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "RibbonClientInitializer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(names.size());
+            for (String name : names) {
+                results.add(executor.submit(() -> initializeNamedClient(name)));
+            }
+            int count = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    if (result.get()) {
+                        count++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while initializing named clients", e);
+                } catch (Exception e) {
+                    logger.warn("Unexpected error initializing named client", e);
+                }
+            }
+            return count;
+        } finally {
+            executor.shutdownNow();
         }
+    }
+
+    private static boolean initializeNamedClient(String name) {
         try {
-            return registerClientFromProperties(name, getNamedConfig(name));
-        } catch (ClientException e) {
-            throw new RuntimeException("Unable to create client", e);
+            getNamedClient(name);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Unable to initialize named client {}", name, e);
+            return false;
         }
     }
 
@@ -108,14 +214,16 @@ public class ClientFactory {
      * 
      * @throws RuntimeException if an error occurs in creating the client.
      */
-    public static synchronized IClient getNamedClient(String name, Class<? extends IClientConfig> configClass) {
-    	if (simpleClientMap.get(name) != null) {
-    	    return simpleClientMap.get(name);
-    	}
-        try {
-            return createNamedClient(name, configClass);
-        } catch (ClientException e) {
-            throw new RuntimeException("Unable to create client", e);
+    public static IClient getNamedClient(String name, Class<? extends IClientConfig> configClass) {
+        synchronized (lockFor(name)) {
+            if (simpleClientMap.get(name) != null) {
+                return simpleClientMap.get(name);
+            }
+            try {
+                return createNamedClient(name, configClass);
+            } catch (ClientException e) {
+                throw new RuntimeException("Unable to create client", e);
+            }
         }
     }
 
@@ -124,9 +232,11 @@ public class ClientFactory {
      *  
      * @throws ClientException if any error occurs, or if the client with the same name already exists
      */
-    public static synchronized IClient createNamedClient(String name, Class<? extends IClientConfig> configClass) throws ClientException {
-    	IClientConfig config = getNamedConfig(name, configClass);
-        return registerClientFromProperties(name, config);
+    public static IClient createNamedClient(String name, Class<? extends IClientConfig> configClass) throws ClientException {
+        synchronized (lockFor(name)) {
+            IClientConfig config = getNamedConfig(name, configClass);
+            return registerClientFromProperties(name, config);
+        }
     }
     
     /**
@@ -134,11 +244,16 @@ public class ClientFactory {
      * 
      * @throws RuntimeException if any error occurs
      */
-    public static synchronized ILoadBalancer getNamedLoadBalancer(String name) {
+    public static ILoadBalancer getNamedLoadBalancer(String name) {
         ILoadBalancer lb = namedLBMap.get(name);
         if (lb != null) {
             return lb;
-        } else {
+        }
+        synchronized (lockFor(name)) {
+            lb = namedLBMap.get(name);
+            if (lb != null) {
+                return lb;
+            }
             try {
                 lb = registerNamedLoadBalancerFromclientConfig(name, getNamedConfig(name));
             } catch (ClientException e) {
@@ -155,11 +270,12 @@ public class ClientFactory {
      * @throws RuntimeException if any error occurs
      * @see #registerNamedLoadBalancerFromProperties(String, Class)
      */
-    public static synchronized ILoadBalancer getNamedLoadBalancer(String name, Class<? extends IClientConfig> configClass) {
-        ILoadBalancer lb = namedLBMap.get(name);
-        if (lb != null) {
-            return lb;
-        } else {
+    public static ILoadBalancer getNamedLoadBalancer(String name, Class<? extends IClientConfig> configClass) {
+        synchronized (lockFor(name)) {
+            ILoadBalancer lb = namedLBMap.get(name);
+            if (lb != null) {
+                return lb;
+            }
             try {
                 lb = registerNamedLoadBalancerFromProperties(name, configClass);
             } catch (ClientException e) {
@@ -176,19 +292,21 @@ public class ClientFactory {
      * @see #instantiateInstanceWithClientConfig(String, IClientConfig)
      */
     public static ILoadBalancer registerNamedLoadBalancerFromclientConfig(String name, IClientConfig clientConfig) throws ClientException {
-        if (namedLBMap.get(name) != null) {
-            throw new ClientException("LoadBalancer for name " + name + " already exists");
+        synchronized (lockFor(name)) {
+            if (namedLBMap.get(name) != null) {
+                throw new ClientException("LoadBalancer for name " + name + " already exists");
+            }
+            ILoadBalancer lb = null;
+            try {
+                String loadBalancerClassName = clientConfig.getOrDefault(CommonClientConfigKey.NFLoadBalancerClassName);
+                lb = (ILoadBalancer) ClientFactory.instantiateInstanceWithClientConfig(loadBalancerClassName, clientConfig);
+                namedLBMap.put(name, lb);
+                logger.info("Client: {} instantiated a LoadBalancer: {}", name, lb);
+                return lb;
+            } catch (Throwable e) {
+               throw new ClientException("Unable to instantiate/associate LoadBalancer with Client:" + name, e);
+            }
         }
-    	ILoadBalancer lb = null;
-        try {
-            String loadBalancerClassName = clientConfig.getOrDefault(CommonClientConfigKey.NFLoadBalancerClassName);
-            lb = (ILoadBalancer) ClientFactory.instantiateInstanceWithClientConfig(loadBalancerClassName, clientConfig);                                    
-            namedLBMap.put(name, lb);            
-            logger.info("Client: {} instantiated a LoadBalancer: {}", name, lb);
-            return lb;
-        } catch (Throwable e) {           
-           throw new ClientException("Unable to instantiate/associate LoadBalancer with Client:" + name, e);
-        }    	
     }
     
     /**
@@ -197,16 +315,20 @@ public class ClientFactory {
      * @throws ClientException if load balancer with the same name already exists or any error occurs
      * @see #instantiateInstanceWithClientConfig(String, IClientConfig)
      */
-    public static synchronized ILoadBalancer registerNamedLoadBalancerFromProperties(String name, Class<? extends IClientConfig> configClass) throws ClientException {
-        if (namedLBMap.get(name) != null) {
-            throw new ClientException("LoadBalancer for name " + name + " already exists");
+    public static ILoadBalancer registerNamedLoadBalancerFromProperties(String name, Class<? extends IClientConfig> configClass) throws ClientException {
+        synchronized (lockFor(name)) {
+            if (namedLBMap.get(name) != null) {
+                throw new ClientException("LoadBalancer for name " + name + " already exists");
+            }
+            IClientConfig clientConfig = getNamedConfig(name, configClass);
+            return registerNamedLoadBalancerFromclientConfig(name, clientConfig);
         }
-        IClientConfig clientConfig = getNamedConfig(name, configClass);
-        return registerNamedLoadBalancerFromclientConfig(name, clientConfig);
     }    
 
     /**
-     * Creates instance related to client framework using reflection. It first checks if the object is an instance of 
+     * Creates instance related to client framework. If a factory is registered for the class name in
+     * {@link ClientComponentRegistry#DEFAULT}, that factory is used. Otherwise the instance is created using reflection:
+     * it first checks if the object is an instance of 
      * {@link IClientConfigAware} and if so invoke {@link IClientConfigAware#initWithNiwsConfig(IClientConfig)}. If that does not
      * apply, it tries to find if there is a constructor with {@link IClientConfig} as a parameter and if so invoke that constructor. If neither applies,
      * it simply invokes the no-arg constructor and ignores the clientConfig parameter. 
@@ -217,6 +339,10 @@ public class ClientFactory {
     @SuppressWarnings("unchecked")
 	public static Object instantiateInstanceWithClientConfig(String className, IClientConfig clientConfig) 
     		throws InstantiationException, IllegalAccessException, ClassNotFoundException {
+        Object registered = ClientComponentRegistry.DEFAULT.create(className, clientConfig);
+        if (registered != null) {
+            return registered;
+        }
     	Class clazz = Class.forName(className);
     	if (IClientConfigAware.class.isAssignableFrom(clazz)) {
     		IClientConfigAware obj = (IClientConfigAware) clazz.newInstance();
@@ -267,6 +393,18 @@ public class ClientFactory {
         });
     }
 
+    private static Object lockFor(String name) {
+        Object lock = namedLocks.get(name);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = namedLocks.putIfAbsent(name, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
     private static Supplier<IClientConfig> factoryFromConfigType(Class<? extends IClientConfig> clientConfigClass) {
         return () -> {
                 try {
@@ -28,7 +28,8 @@ import com.netflix.servo.annotations.Monitor;
  * A load balancer rule that filters out servers that:
  * <ul>
  * <li> are in circuit breaker tripped state due to consecutive connection or read failures, or</li>
- * <li> have active connections that exceeds a configurable limit (default is Integer.MAX_VALUE).</li>
+ * <li> have active connections that exceeds a configurable limit (default is Integer.MAX_VALUE), or</li>
+ * <li> asked clients to back off (HTTP 429 or 503) and are still in their cooldown period.</li>
  * </ul>
  * The property
  * to change this limit is 
@@ -49,7 +50,7 @@ public class AvailabilityFilteringRule extends PredicateBasedRule {
     
     public AvailabilityFilteringRule() {
     	super();
-        predicate = CompositePredicate.withPredicate(new AvailabilityPredicate(this, null))
+        predicate = CompositePredicate.withPredicates(new AvailabilityPredicate(this, null), new ThrottledServerPredicate(this))
                 .addFallbackPredicate(AbstractServerPredicate.alwaysTrue())
                 .build();
     }
@@ -57,7 +58,7 @@ public class AvailabilityFilteringRule extends PredicateBasedRule {
     
     @Override
     public void initWithNiwsConfig(IClientConfig clientConfig) {
-    	predicate = CompositePredicate.withPredicate(new AvailabilityPredicate(this, clientConfig))
+    	predicate = CompositePredicate.withPredicates(new AvailabilityPredicate(this, clientConfig), new ThrottledServerPredicate(this))
     	            .addFallbackPredicate(AbstractServerPredicate.alwaysTrue())
     	            .build();
     }
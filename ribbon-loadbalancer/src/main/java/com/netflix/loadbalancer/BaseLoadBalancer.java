@@ -368,6 +368,10 @@ public class BaseLoadBalancer extends AbstractLoadBalancer implements
         if (ping != null) {
             if (!ping.equals(this.ping)) {
                 this.ping = ping;
+                if (pingStrategy == DEFAULT_PING_STRATEGY && ping instanceof IPingStrategy) {
+                    // ping knows how to ping many servers at once, e.g. concurrently
+                    pingStrategy = (IPingStrategy) ping;
+                }
                 setupPingTask(); // since ping data changed
             }
         } else {
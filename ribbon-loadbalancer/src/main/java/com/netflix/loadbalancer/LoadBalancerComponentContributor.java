@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.loadbalancer;
+
+import static com.netflix.client.ClientComponentRegistry.configAware;
+
+import com.netflix.client.ClientComponentContributor;
+import com.netflix.client.ClientComponentRegistry;
+
+/**
+ * Registers the load balancers, rules, pings, server lists, filters and stats shipped with ribbon-loadbalancer so
+ * that they are created without reflection.
+ */
+public class LoadBalancerComponentContributor implements ClientComponentContributor {
+
+    @Override
+    public void contribute(ClientComponentRegistry registry) {
+        registry.register(BaseLoadBalancer.class, configAware(BaseLoadBalancer::new))
+                .register(DynamicServerListLoadBalancer.class, configAware(DynamicServerListLoadBalancer::new))
+                .register(ZoneAwareLoadBalancer.class, configAware(ZoneAwareLoadBalancer::new))
+
+                .register(RoundRobinRule.class, configAware(RoundRobinRule::new))
+                .register(RandomRule.class, configAware(RandomRule::new))
+                .register(RetryRule.class, configAware(RetryRule::new))
+                .register(BestAvailableRule.class, configAware(BestAvailableRule::new))
+                .register(AvailabilityFilteringRule.class, configAware(AvailabilityFilteringRule::new))
+                .register(ZoneAvoidanceRule.class, configAware(ZoneAvoidanceRule::new))
+                .register(WeightedResponseTimeRule.class, configAware(WeightedResponseTimeRule::new))
+                .register(ServerLoadWeightedRule.class, configAware(ServerLoadWeightedRule::new))
+
+                .register(DummyPing.class, configAware(DummyPing::new))
+                .register(NoOpPing.class, clientConfig -> new NoOpPing())
+                .register(PingConstant.class, clientConfig -> new PingConstant())
+
+                .register(LoadBalancerStats.class, configAware(LoadBalancerStats::new))
+                .register(ConfigurationBasedServerList.class, configAware(ConfigurationBasedServerList::new))
+                .register(PollingServerListUpdater.class, PollingServerListUpdater::new)
+                .register(ZoneAffinityServerListFilter.class, configAware(ZoneAffinityServerListFilter::new))
+                .register(ServerListSubsetFilter.class, configAware(ServerListSubsetFilter::new));
+    }
+}
@@ -57,6 +57,21 @@ public class LoadBalancerContext implements IClientConfigAware {
 
     protected boolean okToRetryOnAllOperations = CommonClientConfigKey.OkToRetryOnAllOperations.defaultValue();
 
+    protected int throttleCooldown = CommonClientConfigKey.ThrottleCooldownMilliSeconds.defaultValue();
+    protected int maxThrottleCooldown = CommonClientConfigKey.MaxThrottleCooldownMilliSeconds.defaultValue();
+
+    protected String serverLoadHeaderName = null;
+    protected int serverLoadDecay = CommonClientConfigKey.ServerLoadDecayMilliSeconds.defaultValue();
+
+    protected boolean adaptiveReadTimeoutEnabled = CommonClientConfigKey.EnableAdaptiveReadTimeout.defaultValue();
+    protected float adaptiveReadTimeoutPercentile = CommonClientConfigKey.AdaptiveReadTimeoutPercentile.defaultValue();
+    protected float adaptiveReadTimeoutMultiplier = CommonClientConfigKey.AdaptiveReadTimeoutMultiplier.defaultValue();
+    protected int adaptiveReadTimeoutMin = CommonClientConfigKey.AdaptiveReadTimeoutMinMilliSeconds.defaultValue();
+    protected int adaptiveReadTimeoutMax = CommonClientConfigKey.AdaptiveReadTimeoutMaxMilliSeconds.defaultValue();
+    protected int adaptiveReadTimeoutMinSamples = CommonClientConfigKey.AdaptiveReadTimeoutMinSamples.defaultValue();
+
+    protected int circuitTrippingResponseTime = CommonClientConfigKey.CircuitTrippingResponseTimeMilliSeconds.defaultValue();
+
     private ILoadBalancer lb;
 
     private volatile Timer tracer;
@@ -95,6 +110,17 @@ public class LoadBalancerContext implements IClientConfigAware {
         maxAutoRetries = clientConfig.getOrDefault(CommonClientConfigKey.MaxAutoRetries);
         maxAutoRetriesNextServer = clientConfig.getOrDefault(CommonClientConfigKey.MaxAutoRetriesNextServer);
         okToRetryOnAllOperations = clientConfig.getOrDefault(CommonClientConfigKey.OkToRetryOnAllOperations);
+        throttleCooldown = clientConfig.getOrDefault(CommonClientConfigKey.ThrottleCooldownMilliSeconds);
+        maxThrottleCooldown = clientConfig.getOrDefault(CommonClientConfigKey.MaxThrottleCooldownMilliSeconds);
+        serverLoadHeaderName = clientConfig.get(CommonClientConfigKey.ServerLoadHeaderName);
+        serverLoadDecay = clientConfig.getOrDefault(CommonClientConfigKey.ServerLoadDecayMilliSeconds);
+        adaptiveReadTimeoutEnabled = clientConfig.getOrDefault(CommonClientConfigKey.EnableAdaptiveReadTimeout);
+        adaptiveReadTimeoutPercentile = clientConfig.getOrDefault(CommonClientConfigKey.AdaptiveReadTimeoutPercentile);
+        adaptiveReadTimeoutMultiplier = clientConfig.getOrDefault(CommonClientConfigKey.AdaptiveReadTimeoutMultiplier);
+        adaptiveReadTimeoutMin = clientConfig.getOrDefault(CommonClientConfigKey.AdaptiveReadTimeoutMinMilliSeconds);
+        adaptiveReadTimeoutMax = clientConfig.getOrDefault(CommonClientConfigKey.AdaptiveReadTimeoutMaxMilliSeconds);
+        adaptiveReadTimeoutMinSamples = clientConfig.getOrDefault(CommonClientConfigKey.AdaptiveReadTimeoutMinSamples);
+        circuitTrippingResponseTime = clientConfig.getOrDefault(CommonClientConfigKey.CircuitTrippingResponseTimeMilliSeconds);
         defaultRetryHandler = new DefaultLoadBalancerRetryHandler(clientConfig);
         
         tracer = getExecuteTracer();
@@ -260,6 +286,75 @@ public class LoadBalancerContext implements IClientConfigAware {
     }
     
     
+    /**
+     * Put a server that has asked clients to back off (HTTP 429 or 503) in cooldown, so that
+     * {@link ThrottledServerPredicate} keeps the load balancer from choosing it until the cooldown is over.
+     * 
+     * @param retryAfterMillis the delay requested by the server, for example from a Retry-After header, or a negative
+     *        value if the server did not specify one, in which case {@link CommonClientConfigKey#ThrottleCooldownMilliSeconds}
+     *        is used. The cooldown never exceeds {@link CommonClientConfigKey#MaxThrottleCooldownMilliSeconds}.
+     */
+    public void noteServerThrottled(ServerStats stats, long retryAfterMillis) {
+        if (stats == null) {
+            return;
+        }
+        long cooldown = retryAfterMillis >= 0 ? retryAfterMillis : throttleCooldown;
+        stats.noteThrottled(Math.min(cooldown, maxThrottleCooldown));
+    }
+
+    public boolean isAdaptiveReadTimeoutEnabled() {
+        return adaptiveReadTimeoutEnabled;
+    }
+
+    /**
+     * Compute the read timeout of an attempt on a server from its recent response time distribution, if
+     * {@link CommonClientConfigKey#EnableAdaptiveReadTimeout} is set: the response time at
+     * {@link CommonClientConfigKey#AdaptiveReadTimeoutPercentile} multiplied by
+     * {@link CommonClientConfigKey#AdaptiveReadTimeoutMultiplier}, clamped between
+     * {@link CommonClientConfigKey#AdaptiveReadTimeoutMinMilliSeconds} and
+     * {@link CommonClientConfigKey#AdaptiveReadTimeoutMaxMilliSeconds}. If no maximum is configured, the static
+     * read timeout is the maximum, so that adaptive timeouts only ever tighten the static one.
+     * 
+     * @param staticReadTimeout the read timeout that applies without adaptive timeouts. It is returned as is if
+     *        adaptive timeouts are disabled or not enough response times have been recorded for the server yet.
+     */
+    public int getAdaptiveReadTimeout(ServerStats stats, int staticReadTimeout) {
+        if (!adaptiveReadTimeoutEnabled || stats == null
+                || stats.getResponseTimePercentileNumValues() < adaptiveReadTimeoutMinSamples) {
+            return staticReadTimeout;
+        }
+        double timeout = stats.getResponseTimePercentile(adaptiveReadTimeoutPercentile) * adaptiveReadTimeoutMultiplier;
+        int max = adaptiveReadTimeoutMax > 0 ? adaptiveReadTimeoutMax : staticReadTimeout;
+        return (int) Math.min(max, Math.max(adaptiveReadTimeoutMin, timeout));
+    }
+
+    /**
+     * @return the name of the response header that carries the load reported by the server, or null if
+     *         load reporting is not enabled for this client
+     * @see CommonClientConfigKey#ServerLoadHeaderName
+     */
+    public String getServerLoadHeaderName() {
+        return serverLoadHeaderName;
+    }
+
+    /**
+     * Record the load reported by a server in a response header, to be used by {@link ServerLoadWeightedRule}.
+     * Missing or malformed values are ignored.
+     */
+    public void noteServerLoad(ServerStats stats, String headerValue) {
+        if (stats == null || headerValue == null) {
+            return;
+        }
+        try {
+            double load = Double.parseDouble(headerValue.trim());
+            if (load >= 0 && !Double.isInfinite(load)) {
+                stats.noteServerLoad(load, serverLoadDecay);
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Invalid server load value: {}", headerValue);
+        }
+    }
+
     /**
      * This is called after a response is received or an exception is thrown from the client
      * to update related stats.  
@@ -272,13 +367,13 @@ public class LoadBalancerContext implements IClientConfigAware {
             recordStats(stats, responseTime);
             RetryHandler callErrorHandler = errorHandler == null ? getRetryHandler() : errorHandler;
             if (callErrorHandler != null && response != null) {
-                stats.clearSuccessiveConnectionFailureCount();
+                noteResponseForCircuitBreaker(stats, callErrorHandler, response, responseTime);
             } else if (callErrorHandler != null && e != null) {
                 if (callErrorHandler.isCircuitTrippingException(e)) {
                     stats.incrementSuccessiveConnectionFailureCount();                    
                     stats.addToFailureCount();
                 } else {
-                    stats.clearSuccessiveConnectionFailureCount();
+                    stats.noteCircuitBreakerSuccess();
                 }
             }
         } catch (Exception ex) {
@@ -302,7 +397,7 @@ public class LoadBalancerContext implements IClientConfigAware {
                     stats.incrementSuccessiveConnectionFailureCount();                    
                     stats.addToFailureCount();
                 } else {
-                    stats.clearSuccessiveConnectionFailureCount();
+                    stats.noteCircuitBreakerSuccess();
                 }
             }
         } catch (Exception ex) {
@@ -322,13 +417,28 @@ public class LoadBalancerContext implements IClientConfigAware {
             recordStats(stats, responseTime);
             RetryHandler errorHandler = getRetryHandler();
             if (errorHandler != null && response != null) {
-                stats.clearSuccessiveConnectionFailureCount();
+                noteResponseForCircuitBreaker(stats, errorHandler, response, responseTime);
             } 
         } catch (Exception ex) {
             logger.error("Error noting stats for client {}", clientName, ex);
         }            
     }
 
+    /**
+     * A response counts as a circuit breaker failure if the {@link RetryHandler} classifies it as one,
+     * e.g. a 5xx HTTP response, or if it took longer than
+     * {@link CommonClientConfigKey#CircuitTrippingResponseTimeMilliSeconds}.
+     */
+    private void noteResponseForCircuitBreaker(ServerStats stats, RetryHandler errorHandler, Object response, long responseTime) {
+        if (errorHandler.isCircuitTrippingResponse(response)
+                || (circuitTrippingResponseTime > 0 && responseTime > circuitTrippingResponseTime)) {
+            stats.incrementSuccessiveConnectionFailureCount();
+            stats.addToFailureCount();
+        } else {
+            stats.noteCircuitBreakerSuccess();
+        }
+    }
+
     /**
      * This is usually called just before client execute a request.
      */
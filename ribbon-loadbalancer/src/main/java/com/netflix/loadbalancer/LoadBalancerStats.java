@@ -70,6 +70,12 @@ public class LoadBalancerStats implements IClientConfigAware {
     public static final IClientConfigKey<Integer> CIRCUIT_TRIP_MAX_TIMEOUT_SECONDS = new CommonClientConfigKey<Integer>(
             "niws.loadbalancer.%s.circuitTripMaxTimeoutSeconds", 30) {};
 
+    public static final IClientConfigKey<Integer> CIRCUIT_HALF_OPEN_MAX_PROBES = new CommonClientConfigKey<Integer>(
+            "niws.loadbalancer.%s.circuitHalfOpenMaxProbes", 1) {};
+
+    public static final IClientConfigKey<Integer> CIRCUIT_HALF_OPEN_SUCCESS_THRESHOLD = new CommonClientConfigKey<Integer>(
+            "niws.loadbalancer.%s.circuitHalfOpenSuccessThreshold", 2) {};
+
     public static final IClientConfigKey<Integer> DEFAULT_CONNECTION_FAILURE_COUNT_THRESHOLD = new CommonClientConfigKey<Integer>(
             "niws.loadbalancer.default.connectionFailureCountThreshold", 3) {};
 
@@ -79,6 +85,12 @@ public class LoadBalancerStats implements IClientConfigAware {
     public static final IClientConfigKey<Integer> DEFAULT_CIRCUIT_TRIP_MAX_TIMEOUT_SECONDS = new CommonClientConfigKey<Integer>(
             "niws.loadbalancer.default.circuitTripMaxTimeoutSeconds", 30) {};
 
+    public static final IClientConfigKey<Integer> DEFAULT_CIRCUIT_HALF_OPEN_MAX_PROBES = new CommonClientConfigKey<Integer>(
+            "niws.loadbalancer.default.circuitHalfOpenMaxProbes", 1) {};
+
+    public static final IClientConfigKey<Integer> DEFAULT_CIRCUIT_HALF_OPEN_SUCCESS_THRESHOLD = new CommonClientConfigKey<Integer>(
+            "niws.loadbalancer.default.circuitHalfOpenSuccessThreshold", 2) {};
+
     private String name;
     
     volatile Map<String, ZoneStats> zoneStatsMap = new ConcurrentHashMap<>();
@@ -92,6 +104,10 @@ public class LoadBalancerStats implements IClientConfigAware {
 
     private UnboxedIntProperty activeRequestsCountTimeout = new UnboxedIntProperty(ACTIVE_REQUESTS_COUNT_TIMEOUT.defaultValue());
 
+    private UnboxedIntProperty circuitHalfOpenMaxProbes = new UnboxedIntProperty(CIRCUIT_HALF_OPEN_MAX_PROBES.defaultValue());
+
+    private UnboxedIntProperty circuitHalfOpenSuccessThreshold = new UnboxedIntProperty(CIRCUIT_HALF_OPEN_SUCCESS_THRESHOLD.defaultValue());
+
     private final LoadingCache<Server, ServerStats> serverStatsCache = CacheBuilder.newBuilder()
             .expireAfterAccess(30, TimeUnit.MINUTES)
             .removalListener((RemovalListener<Server, ServerStats>) notification -> notification.getValue().close())
@@ -138,6 +154,14 @@ public class LoadBalancerStats implements IClientConfigAware {
         );
         this.activeRequestsCountTimeout = new UnboxedIntProperty(
                 clientConfig.getGlobalProperty(ACTIVE_REQUESTS_COUNT_TIMEOUT));
+        this.circuitHalfOpenMaxProbes = new UnboxedIntProperty(
+                clientConfig.getGlobalProperty(CIRCUIT_HALF_OPEN_MAX_PROBES.format(name))
+                        .fallbackWith(clientConfig.getGlobalProperty(DEFAULT_CIRCUIT_HALF_OPEN_MAX_PROBES))
+        );
+        this.circuitHalfOpenSuccessThreshold = new UnboxedIntProperty(
+                clientConfig.getGlobalProperty(CIRCUIT_HALF_OPEN_SUCCESS_THRESHOLD.format(name))
+                        .fallbackWith(clientConfig.getGlobalProperty(DEFAULT_CIRCUIT_HALF_OPEN_SUCCESS_THRESHOLD))
+        );
     }
 
 
@@ -166,6 +190,14 @@ public class LoadBalancerStats implements IClientConfigAware {
         return activeRequestsCountTimeout;
     }
 
+    UnboxedIntProperty getCircuitHalfOpenMaxProbes() {
+        return circuitHalfOpenMaxProbes;
+    }
+
+    UnboxedIntProperty getCircuitHalfOpenSuccessThreshold() {
+        return circuitHalfOpenSuccessThreshold;
+    }
+
     /**
      * The caller o this class is tasked to call this method every so often if
      * the servers participating in the LoadBalancer changes
@@ -0,0 +1,101 @@
+/*
+ *
+ * Copyright 2013 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.loadbalancer;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A rule that weights servers by the load they report themselves, for example CPU utilization or queue depth,
+ * in a response header configured with {@link com.netflix.client.config.CommonClientConfigKey#ServerLoadHeaderName}.
+ * Unlike response times or active request counts measured by the client, this signal reflects instance sizes and
+ * noisy neighbors that the client cannot see.
+ * <p>
+ * A server is chosen at random with a probability inversely proportional to its smoothed load (see
+ * {@link ServerStats#getServerLoad()}). All servers are expected to report their load on the same scale.
+ * Servers with tripped circuit breakers are skipped. Servers that have not reported any load, or whose last report
+ * is stale (see {@link ServerStats#isServerLoadStale(long)}), are assumed to carry the mean load of the servers that
+ * did report, so that they are neither flooded nor starved. If no server has a recent report, this rule falls back
+ * to round robin.
+ */
+public class ServerLoadWeightedRule extends ClientConfigEnabledRoundRobinRule {
+
+    /**
+     * Added to the load so that idle servers do not get an infinite weight
+     */
+    private static final double MIN_LOAD = 0.01;
+
+    private final Random random = new Random();
+
+    private LoadBalancerStats loadBalancerStats;
+
+    @Override
+    public Server choose(Object key) {
+        if (loadBalancerStats == null) {
+            return super.choose(key);
+        }
+        List<Server> serverList = getLoadBalancer().getReachableServers();
+        long currentTime = System.currentTimeMillis();
+        Server[] candidates = new Server[serverList.size()];
+        // load of each candidate, -1 if unknown
+        double[] loads = new double[serverList.size()];
+        int count = 0;
+        int reported = 0;
+        double totalLoad = 0;
+        for (Server server: serverList) {
+            ServerStats serverStats = loadBalancerStats.getSingleServerStat(server);
+            if (serverStats.isCircuitBreakerTripped(currentTime)) {
+                continue;
+            }
+            double load = -1;
+            if (!serverStats.isServerLoadStale(currentTime)) {
+                load = Math.max(0, serverStats.getServerLoad(currentTime));
+                totalLoad += load;
+                reported++;
+            }
+            candidates[count] = server;
+            loads[count++] = load;
+        }
+        if (reported == 0) {
+            return super.choose(key);
+        }
+        double meanLoad = totalLoad / reported;
+        double[] cumulativeWeights = new double[count];
+        double totalWeight = 0;
+        for (int i = 0; i < count; i++) {
+            double load = loads[i] < 0 ? meanLoad : loads[i];
+            totalWeight += 1 / (MIN_LOAD + load);
+            cumulativeWeights[i] = totalWeight;
+        }
+        double r = random.nextDouble() * totalWeight;
+        for (int i = 0; i < count; i++) {
+            if (r < cumulativeWeights[i]) {
+                return candidates[i];
+            }
+        }
+        return candidates[count - 1];
+    }
+
+    @Override
+    public void setLoadBalancer(ILoadBalancer lb) {
+        super.setLoadBalancer(lb);
+        if (lb instanceof AbstractLoadBalancer) {
+            loadBalancerStats = ((AbstractLoadBalancer) lb).getLoadBalancerStats();            
+        }
+    }
+}
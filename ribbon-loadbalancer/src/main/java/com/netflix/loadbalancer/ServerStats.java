@@ -49,6 +49,8 @@ public class ServerStats {
     private final UnboxedIntProperty circuitTrippedTimeoutFactor;
     private final UnboxedIntProperty maxCircuitTrippedTimeout;
     private final UnboxedIntProperty activeRequestsCountTimeout;
+    private final UnboxedIntProperty circuitHalfOpenMaxProbes;
+    private final UnboxedIntProperty circuitHalfOpenSuccessThreshold;
 
     private static final double[] PERCENTS = makePercentValues();
     
@@ -71,6 +73,8 @@ public class ServerStats {
     
     @VisibleForTesting
     AtomicInteger successiveConnectionFailureCount = new AtomicInteger(0);
+
+    private final AtomicInteger circuitHalfOpenSuccessCount = new AtomicInteger(0);
     
     @VisibleForTesting
     AtomicInteger activeRequestsCount = new AtomicInteger(0);
@@ -83,12 +87,18 @@ public class ServerStats {
     private AtomicLong totalCircuitBreakerBlackOutPeriod = new AtomicLong(0);
     private volatile long lastAccessedTimestamp;
     private volatile long firstConnectionTimestamp = 0;
+    private volatile long throttledUntil = 0;
+    private volatile double serverLoad;
+    private volatile long serverLoadTimestamp = 0;
+    private volatile long serverLoadDecay = 1;
 
     public ServerStats() {
         connectionFailureThreshold = new UnboxedIntProperty(Property.of(LoadBalancerStats.CONNECTION_FAILURE_COUNT_THRESHOLD.defaultValue()));
         circuitTrippedTimeoutFactor = new UnboxedIntProperty(LoadBalancerStats.CIRCUIT_TRIP_TIMEOUT_FACTOR_SECONDS.defaultValue());
         maxCircuitTrippedTimeout = new UnboxedIntProperty(LoadBalancerStats.CIRCUIT_TRIP_MAX_TIMEOUT_SECONDS.defaultValue());
         activeRequestsCountTimeout = new UnboxedIntProperty(LoadBalancerStats.ACTIVE_REQUESTS_COUNT_TIMEOUT.defaultValue());
+        circuitHalfOpenMaxProbes = new UnboxedIntProperty(LoadBalancerStats.CIRCUIT_HALF_OPEN_MAX_PROBES.defaultValue());
+        circuitHalfOpenSuccessThreshold = new UnboxedIntProperty(LoadBalancerStats.CIRCUIT_HALF_OPEN_SUCCESS_THRESHOLD.defaultValue());
     }
 
     public ServerStats(LoadBalancerStats lbStats) {
@@ -96,6 +106,8 @@ public class ServerStats {
         circuitTrippedTimeoutFactor = lbStats.getCircuitTrippedTimeoutFactor();
         connectionFailureThreshold = lbStats.getConnectionFailureCountThreshold();
         activeRequestsCountTimeout = lbStats.getActiveRequestsCountTimeout();
+        circuitHalfOpenMaxProbes = lbStats.getCircuitHalfOpenMaxProbes();
+        circuitHalfOpenSuccessThreshold = lbStats.getCircuitHalfOpenSuccessThreshold();
     }
     
     /**
@@ -267,12 +279,31 @@ public class ServerStats {
         return isCircuitBreakerTripped(System.currentTimeMillis());
     }
     
+    /**
+     * The circuit breaker is tripped during the blackout period that follows successive connection failures.
+     * Once the blackout period is over the circuit breaker is half open: it only admits a limited number of
+     * concurrent trial requests (niws.loadbalancer.&lt;clientName&gt;.circuitHalfOpenMaxProbes) until enough
+     * of them succeed to close it, see {@link #noteCircuitBreakerSuccess()}.
+     */
     public boolean isCircuitBreakerTripped(long currentTime) {
         long circuitBreakerTimeout = getCircuitBreakerTimeout();
         if (circuitBreakerTimeout <= 0) {
             return false;
         }
-        return circuitBreakerTimeout > currentTime;
+        if (circuitBreakerTimeout > currentTime) {
+            return true;
+        }
+        return getActiveRequestsCount(currentTime) >= circuitHalfOpenMaxProbes.get();
+    }
+
+    @Monitor(name="CircuitBreakerHalfOpen", type = DataSourceType.INFORMATIONAL)    
+    public boolean isCircuitBreakerHalfOpen() {
+        return isCircuitBreakerHalfOpen(System.currentTimeMillis());
+    }
+
+    public boolean isCircuitBreakerHalfOpen(long currentTime) {
+        long circuitBreakerTimeout = getCircuitBreakerTimeout();
+        return circuitBreakerTimeout > 0 && circuitBreakerTimeout <= currentTime;
     }
 
     private long getCircuitBreakerTimeout() {
@@ -298,19 +329,111 @@ public class ServerStats {
     }
     
     public void incrementSuccessiveConnectionFailureCount() {
+        circuitHalfOpenSuccessCount.set(0);
         lastConnectionFailedTimestamp = System.currentTimeMillis();
         successiveConnectionFailureCount.incrementAndGet();
         totalCircuitBreakerBlackOutPeriod.addAndGet(getCircuitBreakerBlackoutPeriod());
     }
     
     public void clearSuccessiveConnectionFailureCount() {
+        circuitHalfOpenSuccessCount.set(0);
         successiveConnectionFailureCount.set(0);
     }
+
+    /**
+     * Note a request that did not fail in a way that should trip the circuit breaker. While the circuit
+     * breaker is half open, it is only closed after niws.loadbalancer.&lt;clientName&gt;.circuitHalfOpenSuccessThreshold
+     * such requests. Otherwise this is the same as {@link #clearSuccessiveConnectionFailureCount()}.
+     */
+    public void noteCircuitBreakerSuccess() {
+        noteCircuitBreakerSuccess(System.currentTimeMillis());
+    }
+
+    public void noteCircuitBreakerSuccess(long currentTime) {
+        if (isCircuitBreakerHalfOpen(currentTime)
+                && circuitHalfOpenSuccessCount.incrementAndGet() < circuitHalfOpenSuccessThreshold.get()) {
+            return;
+        }
+        clearSuccessiveConnectionFailureCount();
+    }
     
     @Monitor(name="SuccessiveConnectionFailureCount", type = DataSourceType.GAUGE)
     public int getSuccessiveConnectionFailureCount() {
         return successiveConnectionFailureCount.get();
     }
+
+    /**
+     * Note that the server asked clients to back off, e.g. with HTTP 429 or 503. The server is considered
+     * throttled until the cooldown is over. A shorter cooldown does not cut short one that is already in effect.
+     */
+    public void noteThrottled(long cooldownMillis) {
+        long until = System.currentTimeMillis() + cooldownMillis;
+        if (until > throttledUntil) {
+            throttledUntil = until;
+        }
+    }
+
+    public boolean isThrottled() {
+        return isThrottled(System.currentTimeMillis());
+    }
+
+    public boolean isThrottled(long currentTime) {
+        return currentTime < throttledUntil;
+    }
+
+    /**
+     * @return the time in milliseconds since epoch until which the server is throttled, or 0 if it never was
+     */
+    public long getThrottledUntil() {
+        return throttledUntil;
+    }
+
+    /**
+     * Record a load value reported by the server itself, for example its CPU utilization or queue depth.
+     * Reports are smoothed with an exponentially weighted moving average whose weights decay with the time
+     * elapsed between reports.
+     * 
+     * @param decayMillis the time constant of the decay
+     */
+    public synchronized void noteServerLoad(double load, long decayMillis) {
+        decayMillis = Math.max(1, decayMillis);
+        long now = System.currentTimeMillis();
+        if (serverLoadTimestamp == 0) {
+            serverLoad = load;
+        } else {
+            double weight = Math.exp(-(double) Math.max(0, now - serverLoadTimestamp) / decayMillis);
+            serverLoad = weight * serverLoad + (1 - weight) * load;
+        }
+        serverLoadDecay = decayMillis;
+        serverLoadTimestamp = now;
+    }
+
+    public double getServerLoad() {
+        return getServerLoad(System.currentTimeMillis());
+    }
+
+    /**
+     * Gets the smoothed load reported by the server. The value decays towards 0 while the server
+     * stops reporting, so that a server whose last report was high is eventually tried again.
+     * 
+     * @return the load, or -1 if the server never reported any
+     */
+    public double getServerLoad(long currentTime) {
+        long timestamp = serverLoadTimestamp;
+        if (timestamp == 0) {
+            return -1;
+        }
+        return serverLoad * Math.exp(-(double) Math.max(0, currentTime - timestamp) / serverLoadDecay);
+    }
+
+    /**
+     * @return true if the server never reported its load or did not report it for longer than the time
+     *         constant of the decay, in which case {@link #getServerLoad(long)} says little about its current load
+     */
+    public boolean isServerLoadStale(long currentTime) {
+        long timestamp = serverLoadTimestamp;
+        return timestamp == 0 || currentTime - timestamp > serverLoadDecay;
+    }
     
     /*
      * Response total times
@@ -479,6 +602,19 @@ public class ServerStats {
         return totalRequests.get();
     }
     
+    /**
+     * Gets the recent response time at the given percentile. Only the percentiles exposed as monitors are
+     * tracked, so the closest tracked percentile that is not lower than the requested one is used.
+     */
+    public double getResponseTimePercentile(double percent) {
+        for (Percent p: Percent.values()) {
+            if (p.getValue() >= percent) {
+                return getResponseTimePercentile(p);
+            }
+        }
+        return getResponseTimePercentile(Percent.NINETY_NINE_POINT_FIVE);
+    }
+
     private double getResponseTimePercentile(Percent p) {
         return dataDist.getPercentiles()[p.ordinal()];
     }
@@ -0,0 +1,46 @@
+/*
+ *
+ * Copyright 2013 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.loadbalancer;
+
+import javax.annotation.Nullable;
+
+/**
+ * Predicate that filters out servers which are in a cooldown period because they asked clients to back off,
+ * for example with an HTTP 429 or 503 response and a Retry-After header.
+ * 
+ * @see LoadBalancerContext#noteServerThrottled(ServerStats, long)
+ */
+public class ThrottledServerPredicate extends AbstractServerPredicate {
+
+    public ThrottledServerPredicate(IRule rule) {
+        super(rule);
+    }
+
+    public ThrottledServerPredicate(LoadBalancerStats lbStats) {
+        super(lbStats);
+    }
+
+    @Override
+    public boolean apply(@Nullable PredicateKey input) {
+        LoadBalancerStats stats = getLBStats();
+        if (stats == null) {
+            return true;
+        }
+        return !stats.getSingleServerStat(input.getServer()).isThrottled();
+    }
+}
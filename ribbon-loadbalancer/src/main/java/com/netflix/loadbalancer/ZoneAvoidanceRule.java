@@ -28,6 +28,7 @@ import com.netflix.client.config.IClientConfig;
 /**
  * 使用CompositePredicate的方式来过滤基于分区和可用性的服务集群的规则
  * 这种断言是一个钟ZoneAvoidancePredicate和AvailabilityPredicate的集合
+ * 同AvailabilityFilteringRule一样，还会用ThrottledServerPredicate过滤掉仍在退避冷却期内的服务
  * Fallback是AvailabilityPredicate
  * @author awang
  *
@@ -45,7 +46,9 @@ public class ZoneAvoidanceRule extends PredicateBasedRule {
     }
     
     private CompositePredicate createCompositePredicate(ZoneAvoidancePredicate p1, AvailabilityPredicate p2) {
-        return CompositePredicate.withPredicates(p1, p2)
+        ThrottledServerPredicate p3 = new ThrottledServerPredicate(this);
+        return CompositePredicate.withPredicates(p1, p2, p3)
+                             .addFallbackPredicate(CompositePredicate.withPredicates(p2, p3).build())
                              .addFallbackPredicate(p2)
                              .addFallbackPredicate(AbstractServerPredicate.alwaysTrue())
                              .build();
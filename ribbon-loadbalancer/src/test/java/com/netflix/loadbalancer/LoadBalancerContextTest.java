@@ -24,6 +24,8 @@ import java.net.URLEncoder;
 
 import org.junit.Test;
 
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.DefaultClientConfigImpl;
 import com.netflix.client.config.IClientConfig;
 
 public class LoadBalancerContextTest {
@@ -137,6 +139,50 @@ public class LoadBalancerContextTest {
         URI newURI = context.reconstructURIWithServer(server, request);
         assertEquals(uri + queryString, newURI.toString());        
     }
+    @Test
+    public void testAdaptiveReadTimeout() {
+        DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.loadProperties("AdaptiveReadTimeoutTest");
+        config.set(CommonClientConfigKey.EnableAdaptiveReadTimeout, true);
+        config.set(CommonClientConfigKey.AdaptiveReadTimeoutMinSamples, 10);
+        config.set(CommonClientConfigKey.AdaptiveReadTimeoutMinMilliSeconds, 50);
+        MyLoadBalancerContext context = new MyLoadBalancerContext(lb, config);
+
+        // not enough samples, static timeout is used
+        assertEquals(1000, context.getAdaptiveReadTimeout(new FixedLatencyServerStats(5, 100), 1000));
+        // 99th percentile times the default multiplier of 2
+        assertEquals(200, context.getAdaptiveReadTimeout(new FixedLatencyServerStats(100, 100), 1000));
+        // clamped by the static timeout and the floor
+        assertEquals(1000, context.getAdaptiveReadTimeout(new FixedLatencyServerStats(100, 800), 1000));
+        assertEquals(50, context.getAdaptiveReadTimeout(new FixedLatencyServerStats(100, 1), 1000));
+
+        config.set(CommonClientConfigKey.AdaptiveReadTimeoutMaxMilliSeconds, 3000);
+        context = new MyLoadBalancerContext(lb, config);
+        assertEquals(1600, context.getAdaptiveReadTimeout(new FixedLatencyServerStats(100, 800), 1000));
+
+        context = new MyLoadBalancerContext(lb);
+        assertEquals(1000, context.getAdaptiveReadTimeout(new FixedLatencyServerStats(100, 100), 1000));
+    }
+
+    static class FixedLatencyServerStats extends ServerStats {
+        private final int samples;
+        private final double latency;
+
+        FixedLatencyServerStats(int samples, double latency) {
+            this.samples = samples;
+            this.latency = latency;
+        }
+
+        @Override
+        public int getResponseTimePercentileNumValues() {
+            return samples;
+        }
+
+        @Override
+        public double getResponseTimePercentile(double percent) {
+            return latency;
+        }
+    }
 }
 
 class MyLoadBalancerContext extends LoadBalancerContext {
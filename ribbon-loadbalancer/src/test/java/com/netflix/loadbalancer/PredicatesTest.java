@@ -124,6 +124,47 @@ public class PredicatesTest {
         assertEquals("good:1", second.getId());
     }
     
+    @Test
+    public void testThrottledServerPredicate() {
+        LoadBalancerStats lbStats = new LoadBalancerStats("default");
+        ThrottledServerPredicate predicate = new ThrottledServerPredicate(lbStats);
+
+        Server throttled = new Server("throttled:0");
+        Server good = new Server("good:1");
+        List<Server> servers = Arrays.asList(throttled, good);
+
+        lbStats.getSingleServerStat(throttled).noteThrottled(60000);
+        assertFalse(predicate.apply(new PredicateKey(throttled)));
+        assertTrue(predicate.apply(new PredicateKey(good)));
+        assertEquals(Arrays.asList(good), predicate.getEligibleServers(servers));
+
+        // a shorter cooldown does not end the current one
+        lbStats.getSingleServerStat(throttled).noteThrottled(0);
+        assertFalse(predicate.apply(new PredicateKey(throttled)));
+
+        ServerStats stats = lbStats.getSingleServerStat(good);
+        stats.noteThrottled(100);
+        assertTrue(stats.isThrottled());
+        assertFalse(stats.isThrottled(stats.getThrottledUntil()));
+    }
+
+    @Test
+    public void testZoneAvoidanceRuleFiltersThrottledServers() {
+        BaseLoadBalancer lb = new BaseLoadBalancer();
+        ZoneAvoidanceRule rule = new ZoneAvoidanceRule();
+        rule.setLoadBalancer(lb);
+        Server throttled = new Server("throttled:0");
+        Server good = new Server("good:1");
+        List<Server> servers = Arrays.asList(throttled, good);
+        lb.setServersList(servers);
+
+        lb.getLoadBalancerStats().getSingleServerStat(throttled).noteThrottled(60000);
+        assertEquals(Arrays.asList(good), rule.getPredicate().getEligibleServers(servers));
+        // falls back to all servers when every one of them is throttled
+        lb.getLoadBalancerStats().getSingleServerStat(good).noteThrottled(60000);
+        assertEquals(servers, rule.getPredicate().getEligibleServers(servers));
+    }
+
     @Test
     public void testZoneAvoidancePredicate() {
         Object[][] stats = new Object[10][3];
@@ -0,0 +1,111 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.loadbalancer;
+
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class ServerLoadWeightedRuleTest {
+    
+    @Test
+    public void testRule() {
+        List<Server> servers = Lists.newArrayList();
+        for (int i = 0; i < 3; i++) {
+            servers.add(new Server(String.valueOf(i), 80));
+        }
+        IRule rule = new ServerLoadWeightedRule();
+        BaseLoadBalancer lb = LoadBalancerBuilder.newBuilder().withRule(rule).buildFixedServerListLoadBalancer(servers);
+        lb.getLoadBalancerStats().getSingleServerStat(servers.get(0)).noteServerLoad(0.1, 60000);
+        lb.getLoadBalancerStats().getSingleServerStat(servers.get(1)).noteServerLoad(0.9, 60000);
+        ServerStats stats = lb.getLoadBalancerStats().getSingleServerStat(servers.get(2));
+        stats.noteServerLoad(0.1, 60000);
+        for (int i = 0; i < 3; i++) {
+            stats.incrementSuccessiveConnectionFailureCount();            
+        }
+
+        Map<Server, Integer> counts = Maps.newHashMap();
+        for (Server server: servers) {
+            counts.put(server, 0);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Server server = lb.chooseServer();
+            counts.put(server, counts.get(server) + 1);
+        }
+        // server 2 has tripped circuit breaker
+        assertEquals(0, counts.get(servers.get(2)).intValue());
+        assertTrue(counts.get(servers.get(0)) > 3 * counts.get(servers.get(1)));
+        assertTrue(counts.get(servers.get(1)) > 0);
+    }
+
+    @Test
+    public void testServerLoadDecay() throws Exception {
+        ServerStats stats = new ServerStats();
+        assertEquals(-1, stats.getServerLoad(), 0);
+        stats.noteServerLoad(10, 1000);
+        long now = System.currentTimeMillis();
+        assertEquals(10, stats.getServerLoad(now), 0.5);
+        assertTrue(stats.getServerLoad(now + 5000) < 0.5);
+        Thread.sleep(100);
+        stats.noteServerLoad(0, 1000);
+        double load = stats.getServerLoad(System.currentTimeMillis());
+        assertTrue(load > 5 && load < 10);
+    }
+
+    @Test
+    public void testServerWithoutLoadGetsMeanLoad() {
+        List<Server> servers = Lists.newArrayList();
+        for (int i = 0; i < 3; i++) {
+            servers.add(new Server(String.valueOf(i), 80));
+        }
+        IRule rule = new ServerLoadWeightedRule();
+        BaseLoadBalancer lb = LoadBalancerBuilder.newBuilder().withRule(rule).buildFixedServerListLoadBalancer(servers);
+        lb.getLoadBalancerStats().getSingleServerStat(servers.get(0)).noteServerLoad(0.1, 60000);
+        lb.getLoadBalancerStats().getSingleServerStat(servers.get(1)).noteServerLoad(0.9, 60000);
+
+        Map<Server, Integer> counts = Maps.newHashMap();
+        for (Server server: servers) {
+            counts.put(server, 0);
+        }
+        for (int i = 0; i < 2000; i++) {
+            Server server = lb.chooseServer();
+            counts.put(server, counts.get(server) + 1);
+        }
+        // server 2 never reported, it is weighted like a server with a load of 0.5 instead of an idle one
+        assertTrue(counts.get(servers.get(2)) < counts.get(servers.get(0)) / 2);
+        assertTrue(counts.get(servers.get(2)) > counts.get(servers.get(1)));
+    }
+
+    @Test
+    public void testServerLoadStale() throws Exception {
+        ServerStats stats = new ServerStats();
+        long now = System.currentTimeMillis();
+        assertTrue(stats.isServerLoadStale(now));
+        stats.noteServerLoad(10, 1000);
+        now = System.currentTimeMillis();
+        assertFalse(stats.isServerLoadStale(now));
+        assertTrue(stats.isServerLoadStale(now + 2000));
+    }
+}
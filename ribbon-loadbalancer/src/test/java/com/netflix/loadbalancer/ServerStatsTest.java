@@ -19,12 +19,72 @@ package com.netflix.loadbalancer;
 
 import static org.junit.Assert.*;
 
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.config.ConfigurationManager;
 import com.netflix.servo.monitor.Monitors;
 
 public class ServerStatsTest {
     
+    @BeforeClass
+    public static void init() {
+        ConfigurationManager.getConfigInstance().setProperty("niws.loadbalancer.HalfOpenTest.circuitTripTimeoutFactorSeconds", 1);
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        ConfigurationManager.getConfigInstance().clearProperty("niws.loadbalancer.HalfOpenTest.circuitTripTimeoutFactorSeconds");
+    }
+
+    @Test
+    public void testHalfOpenCircuitBreaker() throws Exception {
+        DefaultClientConfigImpl config = new DefaultClientConfigImpl();
+        config.loadProperties("HalfOpenTest");
+        LoadBalancerStats lbStats = new LoadBalancerStats();
+        lbStats.initWithNiwsConfig(config);
+        ServerStats stats = lbStats.getSingleServerStat(new Server("localhost", 8080));
+
+        tripCircuitBreaker(stats);
+        long now = System.currentTimeMillis();
+        assertTrue(stats.isCircuitBreakerTripped(now));
+        assertFalse(stats.isCircuitBreakerHalfOpen(now));
+        // the blackout period is one second
+        long afterBlackout = now + 1100;
+        assertTrue(stats.isCircuitBreakerHalfOpen(afterBlackout));
+        assertFalse(stats.isCircuitBreakerTripped(afterBlackout));
+        
+        // only one trial request at a time
+        stats.incrementActiveRequestsCount();
+        assertTrue(stats.isCircuitBreakerTripped(afterBlackout));
+        stats.decrementActiveRequestsCount();
+        
+        // closes after two successful trial requests
+        stats.noteCircuitBreakerSuccess(afterBlackout);
+        assertTrue(stats.isCircuitBreakerHalfOpen(afterBlackout));
+        stats.noteCircuitBreakerSuccess(afterBlackout);
+        assertFalse(stats.isCircuitBreakerHalfOpen(afterBlackout));
+        assertEquals(0, stats.getSuccessiveConnectionFailureCount());
+        
+        // a failed trial request opens it again
+        tripCircuitBreaker(stats);
+        now = System.currentTimeMillis();
+        afterBlackout = now + 1100;
+        assertTrue(stats.isCircuitBreakerHalfOpen(afterBlackout));
+        stats.incrementSuccessiveConnectionFailureCount();
+        // the blackout period doubles with every further failure
+        assertTrue(stats.isCircuitBreakerTripped(afterBlackout));
+        assertFalse(stats.isCircuitBreakerHalfOpen(afterBlackout));
+    }
+    
+    private static void tripCircuitBreaker(ServerStats stats) {
+        for (int i = 0; i < 3; i++) {
+            stats.incrementSuccessiveConnectionFailureCount();
+        }
+    }
+
     @Test
     public void testRegisterWithServo() {
         // Make sure annotations are correct:
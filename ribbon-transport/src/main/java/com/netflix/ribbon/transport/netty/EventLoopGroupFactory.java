@@ -0,0 +1,185 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.reactivex.netty.client.AbstractClientBuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+
+/**
+ * Creates and shares the Netty event loop groups that RxClients run on, and applies the transport related
+ * client configuration to RxNetty client builders.
+ * <p>
+ * By default clients stay on RxNetty's global NIO client event loop. If {@link CommonClientConfigKey#UseNativeTransport}
+ * is set and native epoll is available (Linux only) or if {@link CommonClientConfigKey#EventLoopGroupName} is set,
+ * the client is pinned to a named event loop group which is shared by all clients configured with the same name.
+ * The first client that creates a group determines its transport and its number of threads
+ * ({@link CommonClientConfigKey#EventLoopThreads}, 0 means Netty's default).
+ * <p>
+ * netty-transport-native-epoll is an optional dependency. Without it on the classpath all groups use NIO.
+ */
+public final class EventLoopGroupFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventLoopGroupFactory.class);
+
+    static final String DEFAULT_NATIVE_GROUP_NAME = "ribbon-shared";
+
+    private static final ConcurrentMap<String, EventLoopGroup> groups = new ConcurrentHashMap<String, EventLoopGroup>();
+
+    private static final boolean nativeTransportAvailable = checkNativeTransport();
+
+    private EventLoopGroupFactory() {
+    }
+
+    /**
+     * @return true if the native epoll transport can be used on this platform
+     */
+    public static boolean isNativeTransportAvailable() {
+        return nativeTransportAvailable;
+    }
+
+    private static boolean checkNativeTransport() {
+        try {
+            return NativeTransport.isAvailable();
+        } catch (Throwable e) {
+            // epoll is not on the classpath or its native library could not be loaded
+            logger.debug("Native transport is not available, using NIO", e);
+            return false;
+        }
+    }
+
+    /**
+     * Get the event loop group with the given name, creating it if it does not exist yet.
+     *
+     * @param name name of the group, also used as the thread name prefix
+     * @param threads number of event loop threads, 0 for Netty's default
+     * @param useNative use epoll if it is available, NIO otherwise
+     */
+    public static EventLoopGroup getOrCreate(String name, int threads, boolean useNative) {
+        EventLoopGroup group = groups.get(name);
+        if (group != null) {
+            return group;
+        }
+        synchronized (groups) {
+            group = groups.get(name);
+            if (group == null) {
+                DefaultThreadFactory threadFactory = new DefaultThreadFactory("ribbon-" + name + "-eventloop", true);
+                if (useNative && isNativeTransportAvailable()) {
+                    group = NativeTransport.newEventLoopGroup(threads, threadFactory);
+                } else {
+                    group = new NioEventLoopGroup(threads, threadFactory);
+                }
+                logger.info("Created event loop group {}: {}", name, group.getClass().getSimpleName());
+                groups.put(name, group);
+            }
+            return group;
+        }
+    }
+
+    public static Class<? extends Channel> socketChannelClass(EventLoopGroup group) {
+        return isNative(group) ? NativeTransport.socketChannelClass() : NioSocketChannel.class;
+    }
+
+    public static Class<? extends Channel> datagramChannelClass(EventLoopGroup group) {
+        return isNative(group) ? NativeTransport.datagramChannelClass() : NioDatagramChannel.class;
+    }
+
+    private static boolean isNative(EventLoopGroup group) {
+        // native groups are only ever created when epoll is available
+        return nativeTransportAvailable && NativeTransport.isNative(group);
+    }
+
+    /**
+     * Apply the event loop group, channel type and socket options from the client configuration to an RxNetty
+     * client builder. Options that are not set are left at RxNetty's defaults.
+     *
+     * @param datagram true for UDP clients
+     */
+    public static void configure(AbstractClientBuilder<?, ?, ?, ?> builder, IClientConfig config, boolean datagram) {
+        String groupName = config.get(CommonClientConfigKey.EventLoopGroupName);
+        boolean useNative = config.get(CommonClientConfigKey.UseNativeTransport, false);
+        if (groupName == null && useNative && isNativeTransportAvailable()) {
+            groupName = DEFAULT_NATIVE_GROUP_NAME;
+        }
+        if (groupName != null) {
+            EventLoopGroup group = getOrCreate(groupName, config.get(CommonClientConfigKey.EventLoopThreads, 0), useNative);
+            builder.eventloop(group);
+            builder.channel(datagram ? datagramChannelClass(group) : socketChannelClass(group));
+        }
+
+        Integer sendBufferSize = config.get(CommonClientConfigKey.SendBufferSize);
+        if (sendBufferSize != null) {
+            builder.channelOption(ChannelOption.SO_SNDBUF, sendBufferSize);
+        }
+        Integer receiveBufferSize = config.get(CommonClientConfigKey.ReceiveBufferSize);
+        if (receiveBufferSize != null) {
+            builder.channelOption(ChannelOption.SO_RCVBUF, receiveBufferSize);
+        }
+        if (!datagram) {
+            Boolean tcpNoDelay = config.get(CommonClientConfigKey.TcpNoDelay);
+            if (tcpNoDelay != null) {
+                builder.channelOption(ChannelOption.TCP_NODELAY, tcpNoDelay);
+            }
+            Boolean keepAlive = config.get(CommonClientConfigKey.SoKeepAlive);
+            if (keepAlive != null) {
+                builder.channelOption(ChannelOption.SO_KEEPALIVE, keepAlive);
+            }
+        }
+    }
+
+    /**
+     * Shut down the event loop group with the given name, if any. A later request for the same name creates a new group.
+     *
+     * @return the group that is shutting down or null if there was none
+     */
+    public static EventLoopGroup shutdown(String name) {
+        synchronized (groups) {
+            EventLoopGroup group = groups.remove(name);
+            if (group != null) {
+                group.shutdownGracefully();
+            }
+            return group;
+        }
+    }
+
+    /**
+     * Shut down all event loop groups created by this factory
+     */
+    public static void shutdown() {
+        synchronized (groups) {
+            for (EventLoopGroup group : groups.values()) {
+                group.shutdownGracefully();
+            }
+            groups.clear();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * An Rx {@link Scheduler} backed by a hashed wheel timer, for the timers that are created for every request, such
+ * as read timeouts and retry backoff. Scheduling and cancelling a task are O(1), whereas the default Rx schedulers
+ * keep delayed tasks in a priority queue per thread. The price is precision: tasks fire on the first tick of the
+ * wheel after their deadline, so delays are rounded up to the tick duration (10 ms for the {@link #getDefault()
+ * default instance}), and a task scheduled without delay also waits for the next tick.
+ * <p>
+ * Tasks run on the single timer thread and should be short, which is the case for emitting a timeout error or
+ * resubscribing to a request after a backoff.
+ */
+public class HashedWheelScheduler extends Scheduler {
+
+    private static final HashedWheelScheduler DEFAULT = new HashedWheelScheduler(
+            new HashedWheelTimer(new DefaultThreadFactory("ribbon-timer", true), 10, TimeUnit.MILLISECONDS, 512));
+
+    private final Timer timer;
+
+    public HashedWheelScheduler(Timer timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * @return the scheduler shared by all clients
+     */
+    public static HashedWheelScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new WheelWorker();
+    }
+
+    private class WheelWorker extends Worker {
+
+        private final CompositeSubscription tasks = new CompositeSubscription();
+
+        @Override
+        public Subscription schedule(Action0 action) {
+            return schedule(action, 0, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public Subscription schedule(Action0 action, long delayTime, TimeUnit unit) {
+            if (tasks.isUnsubscribed()) {
+                return Subscriptions.unsubscribed();
+            }
+            ScheduledTask task = new ScheduledTask(action);
+            tasks.add(task);
+            task.setTimeout(timer.newTimeout(task, Math.max(0, delayTime), unit));
+            return task;
+        }
+
+        @Override
+        public void unsubscribe() {
+            tasks.unsubscribe();
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return tasks.isUnsubscribed();
+        }
+
+        private class ScheduledTask implements TimerTask, Subscription {
+
+            private final Action0 action;
+            private final AtomicBoolean done = new AtomicBoolean();
+            private volatile Timeout timeout;
+
+            ScheduledTask(Action0 action) {
+                this.action = action;
+            }
+
+            void setTimeout(Timeout timeout) {
+                this.timeout = timeout;
+                if (done.get()) {
+                    // unsubscribed before the timeout was known
+                    timeout.cancel();
+                }
+            }
+
+            @Override
+            public void run(Timeout timeout) throws Exception {
+                if (!done.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    action.call();
+                } finally {
+                    tasks.remove(this);
+                }
+            }
+
+            @Override
+            public void unsubscribe() {
+                if (done.compareAndSet(false, true)) {
+                    Timeout current = timeout;
+                    if (current != null) {
+                        current.cancel();
+                    }
+                    tasks.remove(this);
+                }
+            }
+
+            @Override
+            public boolean isUnsubscribed() {
+                return done.get();
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package com.netflix.ribbon.transport.netty;
 
 import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.client.AbstractClientBuilder;
 import io.reactivex.netty.client.ClientMetricsEvent;
 import io.reactivex.netty.client.RxClient;
 import io.reactivex.netty.metrics.MetricEventsListener;
@@ -25,11 +26,16 @@ import io.reactivex.netty.metrics.MetricEventsSubject;
 import io.reactivex.netty.pipeline.PipelineConfigurator;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
@@ -38,6 +44,9 @@ import org.slf4j.LoggerFactory;
 
 import rx.Observable;
 import rx.Subscription;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.subscriptions.SerialSubscription;
 
 import com.netflix.client.RetryHandler;
 import com.netflix.client.config.CommonClientConfigKey;
@@ -54,6 +63,7 @@ import com.netflix.loadbalancer.LoadBalancerBuilder;
 import com.netflix.loadbalancer.LoadBalancerContext;
 import com.netflix.loadbalancer.Server;
 import com.netflix.loadbalancer.ServerListChangeListener;
+import com.netflix.loadbalancer.ServerStats;
 import com.netflix.loadbalancer.reactive.LoadBalancerCommand;
 import com.netflix.loadbalancer.reactive.ServerOperation;
 
@@ -70,8 +80,12 @@ import com.netflix.loadbalancer.reactive.ServerOperation;
 public abstract class LoadBalancingRxClient<I, O, T extends RxClient<I, O>> implements RxClient<I, O> {
 
     private static final Logger logger = LoggerFactory.getLogger(LoadBalancingRxClient.class);
+
+    private static final long DRAIN_CHECK_INTERVAL_MILLIS = 100;
     
     protected final ConcurrentMap<Server, T> rxClientCache;
+    // Clients of servers that were removed from the load balancer and are waiting for in-flight requests to finish
+    private final ConcurrentMap<Server, DrainingClient<T>> drainingClients;
     protected final PipelineConfigurator<O, I> pipelineConfigurator;
     protected final IClientConfig clientConfig;
     protected final RetryHandler defaultRetryHandler;
@@ -90,6 +104,7 @@ public abstract class LoadBalancingRxClient<I, O, T extends RxClient<I, O>> impl
     
     public LoadBalancingRxClient(ILoadBalancer lb, IClientConfig config, RetryHandler defaultRetryHandler, PipelineConfigurator<O, I> pipelineConfigurator) {
         this.rxClientCache = new ConcurrentHashMap<Server, T>();
+        this.drainingClients = new ConcurrentHashMap<Server, DrainingClient<T>>();
         this.lbContext = new LoadBalancerContext(lb, config, defaultRetryHandler);
         this.defaultRetryHandler = defaultRetryHandler;
         this.pipelineConfigurator = pipelineConfigurator;
@@ -201,13 +216,37 @@ public abstract class LoadBalancingRxClient<I, O, T extends RxClient<I, O>> impl
                 for (Server server: rxClientCache.keySet()) {
                     if (removedServers.contains(server)) {
                         // this server is no longer in UP status
-                        removeClient(server);
+                        drainClient(server);
                     }
                 }
+                List<Server> addedServers = new ArrayList<Server>(newList);
+                addedServers.removeAll(oldList);
+                if (!addedServers.isEmpty()) {
+                    onServersAdded(addedServers);
+                }
             }
         });
     }
 
+    /**
+     * Called when new servers show up in the load balancer's server list. The default implementation
+     * does nothing.
+     *
+     * @param addedServers servers that were not part of the previous server list
+     */
+    protected void onServersAdded(List<Server> addedServers) {
+    }
+
+    /**
+     * Apply the event loop group, channel type and socket options from the client configuration
+     * to the builder of an RxClient.
+     *
+     * @param datagram true if the builder is for a UDP client
+     */
+    protected void configureTransport(AbstractClientBuilder<?, ?, ?, ?> builder, boolean datagram) {
+        EventLoopGroupFactory.configure(builder, clientConfig, datagram);
+    }
+
     /**
      * Create a client instance for this Server.  Note that only the client object is created
      * here but that the client connection is not created yet.
@@ -224,21 +263,26 @@ public abstract class LoadBalancingRxClient<I, O, T extends RxClient<I, O>> impl
      * @return
      */
     protected T getOrCreateRxClient(Server server) {
-        T client =  rxClientCache.get(server);
+        T client = rxClientCache.get(server);
         if (client != null) {
             return client;
-        } 
-        else {
-            client = createRxClient(server);
-            client.subscribe(listener);
-            client.subscribe(eventSubject);
-            T old = rxClientCache.putIfAbsent(server, client);
-            if (old != null) {
-                return old;
-            } else {
-                return client;
-            }
         }
+        // Creation happens at most once per server so that no pool is ever leaked by a losing thread
+        return rxClientCache.computeIfAbsent(server, new Function<Server, T>() {
+            @Override
+            public T apply(Server s) {
+                // the server came back while its client was still draining
+                DrainingClient<T> draining = drainingClients.remove(s);
+                if (draining != null) {
+                    draining.timer.unsubscribe();
+                    return draining.client;
+                }
+                T newClient = createRxClient(s);
+                newClient.subscribe(listener);
+                newClient.subscribe(eventSubject);
+                return newClient;
+            }
+        });
     }
     
     /**
@@ -253,6 +297,73 @@ public abstract class LoadBalancingRxClient<I, O, T extends RxClient<I, O>> impl
         }
         return client;
     }
+
+    /**
+     * Stop handing out the client for this Server and shut it down once the requests in flight to the
+     * server have completed, or after {@link CommonClientConfigKey#ConnectionDrainTimeout}, whichever comes first.
+     *
+     * @param server
+     * @return The RxClient implementation or null if not found
+     */
+    protected T drainClient(final Server server) {
+        final T client = rxClientCache.remove(server);
+        if (client == null) {
+            return null;
+        }
+        final int drainTimeout = clientConfig.getOrDefault(CommonClientConfigKey.ConnectionDrainTimeout);
+        final ServerStats stats = lbContext.getServerStats(server);
+        if (drainTimeout <= 0 || stats == null || stats.getActiveRequestsCount() == 0) {
+            client.shutdown();
+            return client;
+        }
+
+        final DrainingClient<T> draining = new DrainingClient<T>(client);
+        drainingClients.put(server, draining);
+        final long deadline = System.currentTimeMillis() + drainTimeout;
+        draining.timer.set(Observable.interval(DRAIN_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+                .takeFirst(new Func1<Long, Boolean>() {
+                    @Override
+                    public Boolean call(Long tick) {
+                        return stats.getActiveRequestsCount() == 0 || System.currentTimeMillis() >= deadline;
+                    }
+                })
+                .subscribe(new Action1<Long>() {
+                    @Override
+                    public void call(Long tick) {
+                        // the client may have been revived if the server was added back in the meantime
+                        if (drainingClients.remove(server, draining)) {
+                            logger.debug("[{}] Drained client for server {}", name(), server);
+                            client.shutdown();
+                        }
+                    }
+                }));
+        return client;
+    }
+
+    /**
+     * @return the clients of removed servers that are still waiting for the requests in flight to finish
+     */
+    protected Map<Server, T> getDrainingClients() {
+        Map<Server, T> clients = new HashMap<Server, T>();
+        for (Map.Entry<Server, DrainingClient<T>> entry : drainingClients.entrySet()) {
+            clients.put(entry.getKey(), entry.getValue().client);
+        }
+        return clients;
+    }
+
+    /**
+     * A client waiting for the requests in flight to finish, together with the timer that shuts it down.
+     * Every drain creates a new instance, so the timer of an earlier drain never shuts down a client that
+     * was revived and is being drained again. The timer is cancelled when the client is revived.
+     */
+    private static class DrainingClient<T> {
+        private final T client;
+        private final SerialSubscription timer = new SerialSubscription();
+
+        DrainingClient(T client) {
+            this.client = client;
+        }
+    }
     
     @Override
     public Observable<ObservableConnection<O, I>> connect() {
@@ -274,6 +385,13 @@ public abstract class LoadBalancingRxClient<I, O, T extends RxClient<I, O>> impl
         for (Server server: rxClientCache.keySet()) {
             removeClient(server);
         }
+        for (Server server: drainingClients.keySet()) {
+            DrainingClient<T> draining = drainingClients.remove(server);
+            if (draining != null) {
+                draining.timer.unsubscribe();
+                draining.client.shutdown();
+            }
+        }
     }
 
     @Override
@@ -17,14 +17,30 @@
  */
 package com.netflix.ribbon.transport.netty;
 
+import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.client.AbstractClientBuilder;
 import io.reactivex.netty.client.CompositePoolLimitDeterminationStrategy;
 import io.reactivex.netty.client.MaxConnectionsBasedStrategy;
 import io.reactivex.netty.client.PoolLimitDeterminationStrategy;
 import io.reactivex.netty.client.RxClient;
 import io.reactivex.netty.pipeline.PipelineConfigurator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.subjects.AsyncSubject;
+
+import com.netflix.client.PrimeConnections.PrimeConnectionEndStats;
 import com.netflix.client.RetryHandler;
 import com.netflix.client.config.CommonClientConfigKey;
 import com.netflix.client.config.DefaultClientConfigImpl;
@@ -33,13 +49,22 @@ import com.netflix.client.config.IClientConfigKey;
 import com.netflix.client.config.IClientConfigKey.Keys;
 import com.netflix.loadbalancer.ILoadBalancer;
 import com.netflix.loadbalancer.LoadBalancerBuilder;
+import com.netflix.loadbalancer.Server;
 
 public abstract class LoadBalancingRxClientWithPoolOptions<I, O, T extends RxClient<I, O>> extends LoadBalancingRxClient<I, O, T>{
+    private static final Logger logger = LoggerFactory.getLogger(LoadBalancingRxClientWithPoolOptions.class);
+
     protected CompositePoolLimitDeterminationStrategy poolStrategy;
     protected MaxConnectionsBasedStrategy globalStrategy;
     protected int idleConnectionEvictionMills;
     protected ScheduledExecutorService poolCleanerScheduler;
     protected boolean poolEnabled = true;
+    protected boolean primeConnectionsEnabled;
+    protected int primeConnectionsPerServer;
+    protected int maxConcurrentPrimeConnections;
+    protected int maxTotalTimeToPrimeConnections;
+    protected int connectionMaxAgeMillis;
+    protected int connectionMaxAgeJitterMillis;
 
     public LoadBalancingRxClientWithPoolOptions(IClientConfig config,
             RetryHandler retryHandler,
@@ -68,6 +93,186 @@ public abstract class LoadBalancingRxClientWithPoolOptions<I, O, T extends RxCli
                     config.getClientName() + "." + config.getNameSpace() + "." + CommonClientConfigKey.MaxTotalConnections);
             poolStrategy = new CompositePoolLimitDeterminationStrategy(perHostStrategy, globalStrategy);
             idleConnectionEvictionMills = config.get(Keys.ConnIdleEvictTimeMilliSeconds, DefaultClientConfigImpl.DEFAULT_CONNECTIONIDLE_TIME_IN_MSECS);
+            primeConnectionsEnabled = config.getOrDefault(CommonClientConfigKey.EnablePrimeConnections);
+            primeConnectionsPerServer = Math.min(config.getOrDefault(CommonClientConfigKey.PrimeConnectionsPerServer), maxConnections);
+            maxConcurrentPrimeConnections = Math.max(1, config.getOrDefault(CommonClientConfigKey.MaxConcurrentPrimeConnections));
+            maxTotalTimeToPrimeConnections = config.getOrDefault(CommonClientConfigKey.MaxTotalTimeToPrimeConnections);
+            connectionMaxAgeMillis = config.getOrDefault(CommonClientConfigKey.ConnectionMaxAgeMilliSeconds);
+            connectionMaxAgeJitterMillis = config.getOrDefault(CommonClientConfigKey.ConnectionMaxAgeJitterMilliSeconds);
+        }
+    }
+
+    /**
+     * Warm up the connection pools of all servers currently known to the load balancer. Blocks until
+     * all connections are established or {@link CommonClientConfigKey#MaxTotalTimeToPrimeConnections} elapses.
+     * This is a no-op unless the pool is enabled and {@link CommonClientConfigKey#PrimeConnectionsPerServer} is positive.
+     */
+    public PrimeConnectionEndStats primeConnections() {
+        return primeConnections(lbContext.getLoadBalancer().getAllServers()).toBlocking().single();
+    }
+
+    /**
+     * Warm up the connection pools of all servers currently known to the load balancer without waiting
+     * for the connections to be established. This, and priming the servers added later on, is a no-op unless
+     * {@link CommonClientConfigKey#EnablePrimeConnections} is set in addition to the conditions of {@link #primeConnections()}.
+     */
+    public void primeConnectionsInBackground() {
+        primeConnectionsInBackground(lbContext.getLoadBalancer().getAllServers());
+    }
+
+    /**
+     * Pre-establish {@link CommonClientConfigKey#PrimeConnectionsPerServer} connections to each of the servers
+     * and release them into each server's connection pool, so that they are reused by subsequent requests.
+     * At most {@link CommonClientConfigKey#MaxConcurrentPrimeConnections} connects are in flight at any time and
+     * priming gives up on whatever is left after {@link CommonClientConfigKey#MaxTotalTimeToPrimeConnections}.
+     * Connects still in flight at that point are left to finish and their connections are released right away.
+     *
+     * @return Observable that emits the priming stats once done. Connection failures are counted and never emitted as errors.
+     */
+    public Observable<PrimeConnectionEndStats> primeConnections(List<Server> servers) {
+        if (!poolEnabled || primeConnectionsPerServer <= 0 || servers == null || servers.isEmpty()) {
+            return Observable.just(new PrimeConnectionEndStats(0, 0, 0, 0));
+        }
+        final List<Server> serversToPrime = new ArrayList<Server>(servers);
+        return Observable.defer(new Func0<Observable<PrimeConnectionEndStats>>() {
+            @Override
+            public Observable<PrimeConnectionEndStats> call() {
+                final PrimeState<O, I> state = new PrimeState<O, I>(serversToPrime.size() * primeConnectionsPerServer);
+                final List<Observable<ObservableConnection<O, I>>> connects = new ArrayList<Observable<ObservableConnection<O, I>>>(state.total);
+                for (final Server server : serversToPrime) {
+                    final T client = getOrCreateRxClient(server);
+                    for (int i = 0; i < primeConnectionsPerServer; i++) {
+                        connects.add(Observable.defer(new Func0<Observable<ObservableConnection<O, I>>>() {
+                            @Override
+                            public Observable<ObservableConnection<O, I>> call() {
+                                if (state.isDone()) {
+                                    // out of time, do not start any more connects
+                                    return Observable.empty();
+                                }
+                                return client.connect();
+                            }
+                        }).onErrorResumeNext(new Func1<Throwable, Observable<ObservableConnection<O, I>>>() {
+                            @Override
+                            public Observable<ObservableConnection<O, I>> call(Throwable e) {
+                                logger.debug("Unable to prime connection to {}", server, e);
+                                return Observable.empty();
+                            }
+                        }));
+                    }
+                }
+                // The connects are not unsubscribed when time runs out, since a connection established
+                // after that would be neither released nor closed. They are released by the state instead.
+                final AsyncSubject<Void> allDone = AsyncSubject.create();
+                Observable.merge(Observable.from(connects), maxConcurrentPrimeConnections).subscribe(
+                        new Action1<ObservableConnection<O, I>>() {
+                            @Override
+                            public void call(ObservableConnection<O, I> connection) {
+                                state.add(connection);
+                            }
+                        }, new Action1<Throwable>() {
+                            @Override
+                            public void call(Throwable e) {
+                                allDone.onCompleted();
+                            }
+                        }, new Action0() {
+                            @Override
+                            public void call() {
+                                allDone.onCompleted();
+                            }
+                        });
+                return Observable.<Object>amb(allDone, Observable.timer(maxTotalTimeToPrimeConnections, TimeUnit.MILLISECONDS, HashedWheelScheduler.getDefault()))
+                        .toList()
+                        .map(new Func1<List<Object>, PrimeConnectionEndStats>() {
+                            @Override
+                            public PrimeConnectionEndStats call(List<Object> ignore) {
+                                PrimeConnectionEndStats stats = state.finish();
+                                logger.info("[{}] Priming connections done: {}", name(), stats);
+                                return stats;
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * Connections established while priming. They are held on to until priming is over so that each one is
+     * a distinct pooled connection, and then released into the pool.
+     */
+    private static class PrimeState<O, I> {
+        private final long start = System.currentTimeMillis();
+        private final int total;
+        private final List<ObservableConnection<O, I>> connections = new ArrayList<ObservableConnection<O, I>>();
+        private boolean done;
+
+        PrimeState(int total) {
+            this.total = total;
+        }
+
+        synchronized boolean isDone() {
+            return done;
+        }
+
+        void add(ObservableConnection<O, I> connection) {
+            synchronized (this) {
+                if (!done) {
+                    connections.add(connection);
+                    return;
+                }
+            }
+            // established after priming is over, returns the connection to the pool
+            connection.close();
+        }
+
+        PrimeConnectionEndStats finish() {
+            List<ObservableConnection<O, I>> primed;
+            synchronized (this) {
+                done = true;
+                primed = new ArrayList<ObservableConnection<O, I>>(connections);
+                connections.clear();
+            }
+            for (ObservableConnection<O, I> connection : primed) {
+                // returns the connection to the pool
+                connection.close();
+            }
+            return new PrimeConnectionEndStats(total, primed.size(), total - primed.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Prime connections to newly added servers in the background
+     */
+    @Override
+    protected void onServersAdded(List<Server> addedServers) {
+        primeConnectionsInBackground(addedServers);
+    }
+
+    private void primeConnectionsInBackground(List<Server> servers) {
+        if (!poolEnabled || !primeConnectionsEnabled || primeConnectionsPerServer <= 0) {
+            return;
+        }
+        primeConnections(servers).subscribe(new Action1<PrimeConnectionEndStats>() {
+            @Override
+            public void call(PrimeConnectionEndStats stats) {
+            }
+        }, new Action1<Throwable>() {
+            @Override
+            public void call(Throwable e) {
+                logger.warn("[{}] Failed to prime connections", name(), e);
+            }
+        });
+    }
+
+    /**
+     * Limit the lifetime of the pooled connections created by the builder to
+     * {@link CommonClientConfigKey#ConnectionMaxAgeMilliSeconds}, less a random jitter of up to
+     * {@link CommonClientConfigKey#ConnectionMaxAgeJitterMilliSeconds}. Expired connections are closed when released,
+     * so that long running clients spread their connections over servers added after the connections were opened.
+     * Does nothing unless the pool is enabled and a max age is configured.
+     */
+    protected <W, R> void configureMaxConnectionAge(AbstractClientBuilder<W, R, ?, ?> builder) {
+        if (poolEnabled && connectionMaxAgeMillis > 0) {
+            builder.appendPipelineConfigurator(
+                    new MaxConnectionAgePipelineConfigurator<R, W>(connectionMaxAgeMillis, connectionMaxAgeJitterMillis));
         }
     }
 
@@ -0,0 +1,136 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.reactivex.netty.pipeline.PipelineConfigurator;
+import io.reactivex.netty.protocol.http.client.ClientRequestResponseConverter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the lifetime of pooled connections. Once a connection is older than its maximum age it is marked as
+ * discardable, so that the pool closes it when it is released instead of reusing it, and an idle pooled connection
+ * is discarded instead of being handed out. Requests in flight are never interrupted.
+ * <p>
+ * Each connection gets a maximum age between maxAge - jitter and maxAge, so that connections opened at the same
+ * time (for example when priming or after a deployment) do not all expire at once.
+ */
+public class MaxConnectionAgePipelineConfigurator<R, W> implements PipelineConfigurator<R, W> {
+
+    static final String HANDLER_NAME = "max-connection-age";
+
+    private final long maxAgeMillis;
+    private final long jitterMillis;
+
+    public MaxConnectionAgePipelineConfigurator(long maxAgeMillis, long jitterMillis) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.jitterMillis = Math.max(0, Math.min(jitterMillis, maxAgeMillis - 1));
+    }
+
+    @Override
+    public void configureNewPipeline(ChannelPipeline pipeline) {
+        pipeline.addFirst(HANDLER_NAME, new MaxConnectionAgeHandler(nextMaxAge()));
+    }
+
+    long nextMaxAge() {
+        if (jitterMillis == 0) {
+            return maxAgeMillis;
+        }
+        return maxAgeMillis - ThreadLocalRandom.current().nextLong(jitterMillis + 1);
+    }
+
+    static class MaxConnectionAgeHandler extends ChannelDuplexHandler {
+
+        private final long maxAgeMillis;
+        private ScheduledFuture<?> expiry;
+        private boolean expired;
+
+        MaxConnectionAgeHandler(long maxAgeMillis) {
+            this.maxAgeMillis = maxAgeMillis;
+        }
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+            if (ctx.channel().isActive()) {
+                scheduleExpiry(ctx);
+            }
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            scheduleExpiry(ctx);
+            super.channelActive(ctx);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            cancelExpiry();
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            super.channelRead(ctx, msg);
+            // the protocol handlers may reset the flag for every exchange
+            markIfExpired(ctx);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            markIfExpired(ctx);
+            super.write(ctx, msg, promise);
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+            cancelExpiry();
+        }
+
+        private void scheduleExpiry(final ChannelHandlerContext ctx) {
+            if (expiry != null) {
+                return;
+            }
+            expiry = ctx.executor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    expired = true;
+                    markIfExpired(ctx);
+                }
+            }, maxAgeMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void markIfExpired(ChannelHandlerContext ctx) {
+            if (expired) {
+                ctx.channel().attr(ClientRequestResponseConverter.DISCARD_CONNECTION).set(true);
+            }
+        }
+
+        private void cancelExpiry() {
+            if (expiry != null) {
+                expiry.cancel(false);
+                expiry = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * All references to the native epoll transport, which is an optional dependency. This class is only used
+ * by {@link EventLoopGroupFactory} once it knows that epoll is on the classpath and available, so that
+ * ribbon-transport runs on NIO without it.
+ */
+final class NativeTransport {
+
+    private NativeTransport() {
+    }
+
+    /**
+     * @throws NoClassDefFoundError if netty-transport-native-epoll is not on the classpath
+     */
+    static boolean isAvailable() {
+        return Epoll.isAvailable();
+    }
+
+    static EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+        return new EpollEventLoopGroup(threads, threadFactory);
+    }
+
+    static boolean isNative(EventLoopGroup group) {
+        return group instanceof EpollEventLoopGroup;
+    }
+
+    static Class<? extends Channel> socketChannelClass() {
+        return EpollSocketChannel.class;
+    }
+
+    static Class<? extends Channel> datagramChannelClass() {
+        return EpollDatagramChannel.class;
+    }
+}
@@ -26,6 +26,7 @@ import com.netflix.client.config.IClientConfig;
 import com.netflix.ribbon.transport.netty.http.LoadBalancingHttpClient;
 import com.netflix.ribbon.transport.netty.http.NettyHttpLoadBalancerErrorHandler;
 import com.netflix.ribbon.transport.netty.http.SSEClient;
+import com.netflix.ribbon.transport.netty.tcp.LoadBalancingMultiplexedTcpClient;
 import com.netflix.ribbon.transport.netty.tcp.LoadBalancingTcpClient;
 import com.netflix.ribbon.transport.netty.udp.LoadBalancingUdpClient;
 import com.netflix.config.DynamicIntProperty;
@@ -74,22 +75,35 @@ public final class RibbonTransport {
         return new DefaultLoadBalancerRetryHandler(config);
     }
     
+    private static <I, O> RxClient<I, O> primeInBackground(LoadBalancingTcpClient<I, O> client) {
+        client.primeConnectionsInBackground();
+        return client;
+    }
+
     public static RxClient<ByteBuf, ByteBuf> newTcpClient(ILoadBalancer loadBalancer, IClientConfig config) {
-        return new LoadBalancingTcpClient<ByteBuf, ByteBuf>(loadBalancer, config, getDefaultRetryHandlerWithConfig(config), null, poolCleanerScheduler);
+        return primeInBackground(new LoadBalancingTcpClient<ByteBuf, ByteBuf>(loadBalancer, config, getDefaultRetryHandlerWithConfig(config), null, poolCleanerScheduler));
     }
     
     public static <I, O> RxClient<I, O> newTcpClient(ILoadBalancer loadBalancer, PipelineConfigurator<O, I> pipelineConfigurator, 
             IClientConfig config, RetryHandler retryHandler) {
-        return new LoadBalancingTcpClient<I, O>(loadBalancer, config, retryHandler, pipelineConfigurator, poolCleanerScheduler);
+        return primeInBackground(new LoadBalancingTcpClient<I, O>(loadBalancer, config, retryHandler, pipelineConfigurator, poolCleanerScheduler));
     }
     
     public static <I, O> RxClient<I, O> newTcpClient(PipelineConfigurator<O, I> pipelineConfigurator, 
             IClientConfig config) {
-        return new LoadBalancingTcpClient<I, O>(config, getDefaultRetryHandlerWithConfig(config), pipelineConfigurator, poolCleanerScheduler);    
+        return primeInBackground(new LoadBalancingTcpClient<I, O>(config, getDefaultRetryHandlerWithConfig(config), pipelineConfigurator, poolCleanerScheduler));
     }
 
     public static RxClient<ByteBuf, ByteBuf> newTcpClient(IClientConfig config) {
-        return new LoadBalancingTcpClient<ByteBuf, ByteBuf>(config, getDefaultRetryHandlerWithConfig(config), null, poolCleanerScheduler);    
+        return primeInBackground(new LoadBalancingTcpClient<ByteBuf, ByteBuf>(config, getDefaultRetryHandlerWithConfig(config), null, poolCleanerScheduler));
+    }
+
+    public static LoadBalancingMultiplexedTcpClient newMultiplexedTcpClient(ILoadBalancer loadBalancer, IClientConfig config) {
+        return new LoadBalancingMultiplexedTcpClient(loadBalancer, config, getDefaultRetryHandlerWithConfig(config));
+    }
+
+    public static LoadBalancingMultiplexedTcpClient newMultiplexedTcpClient(IClientConfig config) {
+        return new LoadBalancingMultiplexedTcpClient(config, getDefaultRetryHandlerWithConfig(config));
     }
  
     public static RxClient<DatagramPacket, DatagramPacket> newUdpClient(ILoadBalancer loadBalancer, IClientConfig config) {
@@ -10,6 +10,7 @@ import rx.functions.Func1;
 import rx.functions.Func2;
 
 import com.netflix.client.ClientException;
+import com.netflix.ribbon.transport.netty.HashedWheelScheduler;
 
 public class DefaultResponseToErrorPolicy<O> implements Func2<HttpClientResponse<O>, Integer, Observable<HttpClientResponse<O>>> {
     @Override
@@ -21,7 +22,7 @@ public class DefaultResponseToErrorPolicy<O> implements Func2<HttpClientResponse
             t1.getStatus().equals(HttpResponseStatus.BAD_GATEWAY) ||
             t1.getStatus().equals(HttpResponseStatus.GATEWAY_TIMEOUT)) {
             if (backoff > 0) {
-                return Observable.timer(backoff, TimeUnit.MILLISECONDS)
+                return Observable.timer(backoff, TimeUnit.MILLISECONDS, HashedWheelScheduler.getDefault())
                             .concatMap(new Func1<Long, Observable<HttpClientResponse<O>>>() {
                                 @Override
                                 public Observable<HttpClientResponse<O>> call(Long t1) {
@@ -56,12 +56,16 @@ import rx.functions.Func2;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.netflix.client.ClientFactory;
 import com.netflix.client.RequestSpecificRetryHandler;
 import com.netflix.client.RetryHandler;
+import com.netflix.client.backoff.BackoffStrategy;
+import com.netflix.client.config.ClientConfigSnapshot;
 import com.netflix.client.config.CommonClientConfigKey;
 import com.netflix.client.config.DefaultClientConfigImpl;
 import com.netflix.client.config.IClientConfig;
 import com.netflix.client.config.IClientConfigKey;
+import com.netflix.client.http.HttpRetryAfter;
 import com.netflix.client.ssl.ClientSslSocketFactoryException;
 import com.netflix.loadbalancer.ILoadBalancer;
 import com.netflix.loadbalancer.LoadBalancerBuilder;
@@ -89,7 +93,7 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
     private final List<ExecutionListener<HttpClientRequest<I>, HttpClientResponse<O>>> listeners;
     private final LoadBalancerCommand<HttpClientResponse<O>> defaultCommandBuilder;
     private final Func2<HttpClientResponse<O>, Integer, Observable<HttpClientResponse<O>>> responseToErrorPolicy;
-    private final Func1<Integer, Integer> backoffStrategy;
+    private final BackoffStrategy backoffStrategy;
     
     public static class Builder<I, O> {
         ILoadBalancer lb;
@@ -99,7 +103,7 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
         ScheduledExecutorService poolCleanerScheduler;
         List<ExecutionListener<HttpClientRequest<I>, HttpClientResponse<O>>> listeners;
         Func2<HttpClientResponse<O>, Integer, Observable<HttpClientResponse<O>>> responseToErrorPolicy;
-        Func1<Integer, Integer> backoffStrategy;
+        BackoffStrategy backoffStrategy;
         Func1<Builder<I, O>, LoadBalancingHttpClient<I, O>> build;
         
         protected Builder(Func1<Builder<I, O>, LoadBalancingHttpClient<I, O>> build) {
@@ -158,12 +162,26 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
         /**
          * Strategy for calculating the backoff based on the number of reties.  Input is the number
          * of retries and output is the backoff amount in milliseconds.
-         * The default implementation is non random exponential backoff with time interval configurable
-         * via the property BackoffInterval (default 1000 msec)
+         * The default strategy is created from the property BackoffStrategyClassName, which defaults
+         * to non random exponential backoff with time interval configurable via the property BackoffInterval
          * 
          * @param BackoffStrategy
          */
-        public Builder<I, O> withBackoffStrategy(Func1<Integer, Integer> backoffStrategy) {
+        public Builder<I, O> withBackoffStrategy(final Func1<Integer, Integer> backoffStrategy) {
+            this.backoffStrategy = new BackoffStrategy() {
+                @Override
+                public int getBackoffMillis(int retryCount, int previousBackoffMillis) {
+                    return backoffStrategy.call(retryCount);
+                }
+            };
+            return this;
+        }
+
+        /**
+         * Strategy for calculating the backoff, for example one of the jittered strategies in
+         * {@link com.netflix.client.backoff}
+         */
+        public Builder<I, O> withBackoffStrategy(BackoffStrategy backoffStrategy) {
             this.backoffStrategy = backoffStrategy;
             return this;
         }
@@ -182,24 +200,19 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
                 listeners = Collections.<ExecutionListener<HttpClientRequest<I>, HttpClientResponse<O>>>emptyList();
             }
             if (backoffStrategy == null) {
-                backoffStrategy = new Func1<Integer, Integer>() {
-                    @Override
-                    public Integer call(Integer backoffCount) {
-                        int interval = config.getOrDefault(IClientConfigKey.Keys.BackoffInterval);
-                        if (backoffCount < 0) {
-                            backoffCount = 0;
-                        }
-                        else if (backoffCount > 10) {   // Reasonable upper bound
-                            backoffCount = 10;
-                        }
-                        return (int)Math.pow(2, backoffCount) * interval;
-                    }
-                };
+                String className = config.getOrDefault(CommonClientConfigKey.BackoffStrategyClassName);
+                try {
+                    backoffStrategy = (BackoffStrategy) ClientFactory.instantiateInstanceWithClientConfig(className, config);
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Unable to create backoff strategy " + className, e);
+                }
             }
             if (responseToErrorPolicy == null) {
                 responseToErrorPolicy = new DefaultResponseToErrorPolicy<O>();
             }
-            return build.call(this);
+            LoadBalancingHttpClient<I, O> client = build.call(this);
+            client.primeConnectionsInBackground();
+            return client;
         }
     }
     
@@ -303,15 +316,21 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
         
         return new ServerOperation<HttpClientResponse<O>>() {
             final AtomicInteger count = new AtomicInteger(0);
+            final AtomicInteger previousBackoff = new AtomicInteger(0);
             
             @Override
             public Observable<HttpClientResponse<O>> call(Server server) {
                 HttpClient<I,O> rxClient = getOrCreateRxClient(server);
                 setHostHeader(request, server.getHost());
                 
+                ClientConfig attemptConfig = rxClientConfig;
+                if (lbContext.isAdaptiveReadTimeoutEnabled()) {
+                    attemptConfig = getAdaptiveRxClientConfig(server, rxClientConfig);
+                }
+                
                 Observable<HttpClientResponse<O>> o;
-                if (rxClientConfig != null) {
-                    o = rxClient.submit(request, rxClientConfig);
+                if (attemptConfig != null) {
+                    o = rxClient.submit(request, attemptConfig);
                 } 
                 else {
                     o = rxClient.submit(request);
@@ -320,8 +339,20 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
                 return o.concatMap(new Func1<HttpClientResponse<O>, Observable<HttpClientResponse<O>>>() {
                     @Override
                     public Observable<HttpClientResponse<O>> call(HttpClientResponse<O> t1) {
-                        if (t1.getStatus().code()/100 == 4 || t1.getStatus().code()/100 == 5)
-                            return responseToErrorPolicy.call(t1, backoffStrategy.call(count.getAndIncrement()));
+                        int status = t1.getStatus().code();
+                        String loadHeader = lbContext.getServerLoadHeaderName();
+                        if (loadHeader != null) {
+                            lbContext.noteServerLoad(lbContext.getServerStats(server), t1.getHeaders().get(loadHeader));
+                        }
+                        if (status == 429 || status == 503) {
+                            lbContext.noteServerThrottled(lbContext.getServerStats(server), 
+                                    HttpRetryAfter.parseMillis(t1.getHeaders().get(HttpRetryAfter.HEADER_NAME)));
+                        }
+                        if (status/100 == 4 || status/100 == 5) {
+                            int backoff = backoffStrategy.getBackoffMillis(count.getAndIncrement(), previousBackoff.get());
+                            previousBackoff.set(backoff);
+                            return responseToErrorPolicy.call(t1, backoff);
+                        }
                         else
                             return Observable.just(t1);
                     }
@@ -340,9 +371,15 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
         if (requestConfig == null) {
             return DEFAULT_RX_CONFIG;
         }
-        int requestReadTimeout = getProperty(IClientConfigKey.Keys.ReadTimeout, requestConfig, 
-                                             DefaultClientConfigImpl.DEFAULT_READ_TIMEOUT);
-        Boolean followRedirect = getProperty(IClientConfigKey.Keys.FollowRedirects, requestConfig, null);
+        ClientConfigSnapshot snapshot = clientConfig.getSnapshot();
+        Integer requestReadTimeout = requestConfig.get(IClientConfigKey.Keys.ReadTimeout);
+        if (requestReadTimeout == null) {
+            requestReadTimeout = snapshot.getReadTimeout();
+        }
+        Boolean followRedirect = requestConfig.get(IClientConfigKey.Keys.FollowRedirects);
+        if (followRedirect == null) {
+            followRedirect = snapshot.getFollowRedirects();
+        }
         HttpClientConfig.Builder builder = new HttpClientConfig.Builder().readTimeout(requestReadTimeout, TimeUnit.MILLISECONDS);
         if (followRedirect != null) {
             builder.setFollowRedirect(followRedirect);
@@ -378,6 +415,32 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
         }
     }
 
+    /**
+     * @return ClientConfig with the read timeout adapted to the recent response times of the server
+     * @see com.netflix.loadbalancer.LoadBalancerContext#getAdaptiveReadTimeout(ServerStats, int)
+     */
+    private RxClient.ClientConfig getAdaptiveRxClientConfig(Server server, ClientConfig rxClientConfig) {
+        int staticReadTimeout;
+        if (rxClientConfig != null && rxClientConfig.isReadTimeoutSet()) {
+            staticReadTimeout = (int) rxClientConfig.getReadTimeoutInMillis();
+        } 
+        else {
+            staticReadTimeout = clientConfig.getSnapshot().getReadTimeout();
+        }
+        int readTimeout = lbContext.getAdaptiveReadTimeout(lbContext.getServerStats(server), staticReadTimeout);
+        if (readTimeout == staticReadTimeout) {
+            return rxClientConfig;
+        }
+        if (rxClientConfig == null || rxClientConfig instanceof HttpClientConfig) {
+            HttpClientConfig.Builder builder = rxClientConfig == null 
+                    ? new HttpClientConfig.Builder() : HttpClientConfig.Builder.from((HttpClientConfig) rxClientConfig);
+            return builder.readTimeout(readTimeout, TimeUnit.MILLISECONDS).build();
+        } 
+        else {
+            return new RxClient.ClientConfig.Builder(rxClientConfig).readTimeout(readTimeout, TimeUnit.MILLISECONDS).build();
+        }
+    }
+
     private IClientConfig getRibbonClientConfig(ClientConfig rxClientConfig) {
         if (rxClientConfig != null && rxClientConfig.isReadTimeoutSet()) {
             return IClientConfig.Builder.newBuilder().withReadTimeout((int) rxClientConfig.getReadTimeoutInMillis()).build();
@@ -456,7 +519,7 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
         }
         int port = uri.getPort();
         if (port < 0) {
-            if (clientConfig.get(IClientConfigKey.Keys.IsSecure, false)) {
+            if (clientConfig.getSnapshot().isSecure()) {
                 port = 443;
             } else {
                 port = 80;
@@ -493,11 +556,13 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
         clientBuilder
                 .channelOption(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
                 .config(builder.build());
+        configureTransport(clientBuilder, false);
         if (isPoolEnabled()) {
             clientBuilder
                 .withConnectionPoolLimitStrategy(poolStrategy)
                 .withIdleConnectionsTimeoutMillis(idleConnectionEvictionMills)
                 .withPoolIdleCleanupScheduler(poolCleanerScheduler);
+            configureMaxConnectionAge(clientBuilder);
         } 
         else {
             clientBuilder
@@ -532,6 +597,11 @@ public class LoadBalancingHttpClient<I, O> extends LoadBalancingRxClientWithPool
     Map<Server, HttpClient<I, O>> getRxClients() {
         return rxClientCache;
     }
+
+    @VisibleForTesting
+    Map<Server, HttpClient<I, O>> getDrainingRxClients() {
+        return getDrainingClients();
+    }
     
     @Override
     protected MetricEventsListener<? extends ClientMetricsEvent<?>> createListener(String name) {
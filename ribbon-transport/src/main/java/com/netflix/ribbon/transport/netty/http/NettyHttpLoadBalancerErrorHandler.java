@@ -22,6 +22,7 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.util.List;
 
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
 
 import com.google.common.collect.Lists;
 import com.netflix.client.ClientException;
@@ -68,6 +69,15 @@ public class NettyHttpLoadBalancerErrorHandler extends DefaultLoadBalancerRetryH
         }
         return super.isCircuitTrippingException(e);
     }
+
+    /**
+     * @return true if the response has a 5xx status code
+     */
+    @Override
+    public boolean isCircuitTrippingResponse(Object response) {
+        return response instanceof HttpClientResponse 
+                && ((HttpClientResponse<?>) response).getStatus().code() / 100 == 5;
+    }
     
     @Override
     public boolean isRetriableException(Throwable e, boolean sameServer) {
@@ -0,0 +1,294 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.pipeline.ssl.DefaultFactories;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.client.HttpClientBuilder;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+
+import java.nio.charset.Charset;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.client.IClientConfigAware;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.IPing;
+import com.netflix.loadbalancer.IPingStrategy;
+import com.netflix.loadbalancer.Server;
+import com.netflix.ribbon.transport.netty.HashedWheelScheduler;
+
+/**
+ * A "real" http/s health check like {@link com.netflix.loadbalancer.PingUrl}, but backed by RxNetty. Unlike PingUrl
+ * which creates a new Apache HttpClient (and hence a new TCP/TLS connection) for every ping, this implementation
+ * keeps one small keep-alive connection pool per server on the shared RxNetty event loops and reuses it across
+ * ping cycles.
+ * <p>
+ * Each ping is bounded by {@link CommonClientConfigKey#NFLoadBalancerPingTimeout}. The class also implements
+ * {@link IPingStrategy} so that {@link com.netflix.loadbalancer.BaseLoadBalancer} pings all servers concurrently
+ * instead of one after another.
+ */
+public class NettyPingUrl implements IPing, IPingStrategy, IClientConfigAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyPingUrl.class);
+
+    private static final int MAX_CONNECTIONS_PER_SERVER = 2;
+
+    private final ConcurrentMap<Server, HttpClient<ByteBuf, ByteBuf>> clients = new ConcurrentHashMap<Server, HttpClient<ByteBuf, ByteBuf>>();
+
+    private volatile String pingAppendString = "/";
+    private volatile boolean isSecure = false;
+    private volatile String expectedContent = null;
+    private volatile int pingTimeout = CommonClientConfigKey.NFLoadBalancerPingTimeout.defaultValue();
+    private volatile int connectTimeout = CommonClientConfigKey.ConnectTimeout.defaultValue();
+    private volatile int idleConnectionTimeout = CommonClientConfigKey.ConnIdleEvictTimeMilliSeconds.defaultValue();
+
+    public NettyPingUrl() {
+    }
+
+    public NettyPingUrl(boolean isSecure, String pingAppendString) {
+        this.isSecure = isSecure;
+        setPingAppendString(pingAppendString);
+    }
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        isSecure = clientConfig.get(CommonClientConfigKey.IsSecure, isSecure);
+        pingTimeout = clientConfig.get(CommonClientConfigKey.NFLoadBalancerPingTimeout, pingTimeout);
+        connectTimeout = clientConfig.get(CommonClientConfigKey.ConnectTimeout, connectTimeout);
+        idleConnectionTimeout = clientConfig.get(CommonClientConfigKey.ConnIdleEvictTimeMilliSeconds, idleConnectionTimeout);
+    }
+
+    public void setPingAppendString(String pingAppendString) {
+        this.pingAppendString = (pingAppendString != null && !pingAppendString.isEmpty()) ? pingAppendString : "/";
+    }
+
+    public String getPingAppendString() {
+        return pingAppendString;
+    }
+
+    public boolean isSecure() {
+        return isSecure;
+    }
+
+    public void setSecure(boolean isSecure) {
+        this.isSecure = isSecure;
+    }
+
+    public String getExpectedContent() {
+        return expectedContent;
+    }
+
+    /**
+     * If set, the response body must match this content exactly for the server to be considered alive
+     */
+    public void setExpectedContent(String expectedContent) {
+        this.expectedContent = expectedContent;
+    }
+
+    public int getPingTimeout() {
+        return pingTimeout;
+    }
+
+    public void setPingTimeout(int pingTimeout) {
+        this.pingTimeout = pingTimeout;
+    }
+
+    @Override
+    public boolean isAlive(Server server) {
+        return ping(server).toBlocking().single();
+    }
+
+    /**
+     * Pings all servers concurrently if the ping is this instance. Otherwise falls back to pinging serially
+     * with the supplied {@link IPing}.
+     */
+    @Override
+    public boolean[] pingServers(IPing ping, Server[] servers) {
+        final boolean[] results = new boolean[servers.length];
+        if (ping != this) {
+            for (int i = 0; i < servers.length; i++) {
+                try {
+                    results[i] = ping != null && ping.isAlive(servers[i]);
+                } catch (Exception e) {
+                    logger.error("Exception while pinging Server: '{}'", servers[i], e);
+                }
+            }
+            return results;
+        }
+
+        removeStaleClients(servers);
+
+        List<Observable<Boolean>> pings = new ArrayList<Observable<Boolean>>(servers.length);
+        for (int i = 0; i < servers.length; i++) {
+            final int index = i;
+            pings.add(ping(servers[i]).doOnNext(new Action1<Boolean>() {
+                @Override
+                public void call(Boolean alive) {
+                    results[index] = alive;
+                }
+            }));
+        }
+        Observable.merge(pings).toBlocking().lastOrDefault(false);
+        return results;
+    }
+
+    /**
+     * Ping a single server without blocking. The returned {@link Observable} always emits exactly one value and
+     * never errors; timeouts and connection failures are reported as false.
+     */
+    public Observable<Boolean> ping(final Server server) {
+        HttpClientRequest<ByteBuf> request = HttpClientRequest.createGet(pingAppendString);
+        request.getHeaders().set(HttpHeaders.Names.HOST, server.getHost());
+        return getOrCreateClient(server).submit(request)
+                .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<Boolean>>() {
+                    @Override
+                    public Observable<Boolean> call(HttpClientResponse<ByteBuf> response) {
+                        final boolean statusOk = response.getStatus().code() == 200;
+                        return response.getContent()
+                                .map(new Func1<ByteBuf, String>() {
+                                    @Override
+                                    public String call(ByteBuf buf) {
+                                        return buf.toString(Charset.defaultCharset());
+                                    }
+                                })
+                                .reduce("", new Func2<String, String, String>() {
+                                    @Override
+                                    public String call(String content, String chunk) {
+                                        return content + chunk;
+                                    }
+                                })
+                                .map(new Func1<String, Boolean>() {
+                                    @Override
+                                    public Boolean call(String content) {
+                                        if (expectedContent != null) {
+                                            logger.debug("content: {}", content);
+                                            return expectedContent.equals(content);
+                                        }
+                                        return statusOk;
+                                    }
+                                });
+                    }
+                })
+                .timeout(pingTimeout, TimeUnit.MILLISECONDS, HashedWheelScheduler.getDefault())
+                .onErrorReturn(new Func1<Throwable, Boolean>() {
+                    @Override
+                    public Boolean call(Throwable e) {
+                        logger.debug("Ping to server {} failed", server, e);
+                        return false;
+                    }
+                })
+                .defaultIfEmpty(false)
+                .take(1);
+    }
+
+    /**
+     * Release all pooled connections
+     */
+    public void shutdown() {
+        for (Server server : clients.keySet()) {
+            removeClient(server);
+        }
+    }
+
+    private HttpClient<ByteBuf, ByteBuf> getOrCreateClient(Server server) {
+        HttpClient<ByteBuf, ByteBuf> client = clients.get(server);
+        if (client == null) {
+            HttpClient<ByteBuf, ByteBuf> newClient = createClient(server);
+            client = clients.putIfAbsent(server, newClient);
+            if (client == null) {
+                client = newClient;
+            } else {
+                newClient.shutdown();
+            }
+        }
+        return client;
+    }
+
+    private HttpClient<ByteBuf, ByteBuf> createClient(Server server) {
+        HttpClientBuilder<ByteBuf, ByteBuf> builder = RxNetty.<ByteBuf, ByteBuf>newHttpClientBuilder(server.getHost(), server.getPort())
+                .channelOption(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .channelOption(ChannelOption.SO_KEEPALIVE, true)
+                .withMaxConnections(MAX_CONNECTIONS_PER_SERVER)
+                .withIdleConnectionsTimeoutMillis(idleConnectionTimeout);
+        if (isSecure) {
+            try {
+                builder.withSslEngineFactory(new DefaultFactories.SSLContextBasedFactory(SSLContext.getDefault()) {
+                    @Override
+                    public SSLEngine createSSLEngine(ByteBufAllocator allocator) {
+                        SSLEngine engine = super.createSSLEngine(allocator);
+                        engine.setUseClientMode(true);
+                        return engine;
+                    }
+                });
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Unable to create default SSL context for ping", e);
+            }
+        }
+        return builder.build();
+    }
+
+    private void removeStaleClients(Server[] servers) {
+        Set<Server> current = new HashSet<Server>(servers.length);
+        for (Server server : servers) {
+            current.add(server);
+        }
+        for (Server server : clients.keySet()) {
+            if (!current.contains(server)) {
+                removeClient(server);
+            }
+        }
+    }
+
+    private void removeClient(Server server) {
+        HttpClient<ByteBuf, ByteBuf> client = clients.remove(server);
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @VisibleForTesting
+    Set<Server> getPooledServers() {
+        return clients.keySet();
+    }
+}
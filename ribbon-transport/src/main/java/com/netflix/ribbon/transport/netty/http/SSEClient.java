@@ -21,14 +21,62 @@ import io.netty.channel.ChannelOption;
 import io.reactivex.netty.client.RxClient;
 import io.reactivex.netty.protocol.http.client.HttpClient;
 import io.reactivex.netty.protocol.http.client.HttpClientBuilder;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
 import io.reactivex.netty.protocol.text.sse.ServerSentEvent;
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func0;
 import rx.functions.Func1;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.client.ClientException;
+import com.netflix.client.PrimeConnections.PrimeConnectionEndStats;
+import com.netflix.client.config.CommonClientConfigKey;
 import com.netflix.client.config.DefaultClientConfigImpl;
 import com.netflix.client.config.IClientConfigKey;
+import com.netflix.client.http.UnexpectedHttpResponseException;
 import com.netflix.loadbalancer.Server;
+import com.netflix.ribbon.transport.netty.HashedWheelScheduler;
 
+/**
+ * A load balancing client for Server-Sent Events.
+ * <p>
+ * Besides submitting requests like any {@link LoadBalancingHttpClient}, {@link #observeEvents(String)} shares a single
+ * upstream connection per stream URI among all local subscribers. When the upstream connection ends or fails, the
+ * stream reconnects to the next server chosen by the load balancer and resumes from the last received event
+ * by sending its id in the {@code Last-Event-ID} header. Reconnects back off exponentially and give up after
+ * {@link CommonClientConfigKey#SSEMaxReconnectAttempts} attempts in a row without an event, or right away when the
+ * server answers with a 4xx status other than 429.
+ */
 public class SSEClient<I> extends LoadBalancingHttpClient<I, ServerSentEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SSEClient.class);
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private static final int DEFAULT_RECONNECT_DELAY_MILLIS = 3000;
+
+    private static final int DEFAULT_MAX_RECONNECT_DELAY_MILLIS = 60 * 1000;
+
+    private static final int DEFAULT_MAX_RECONNECT_ATTEMPTS = 10;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private final ConcurrentMap<String, Observable<ServerSentEvent>> sharedStreams = new ConcurrentHashMap<String, Observable<ServerSentEvent>>();
+
+    private volatile long reconnectDelayMillis;
     
     public static <I> Builder<I, ServerSentEvent> sseClientBuilder() {
         return new Builder<I, ServerSentEvent>(new Func1<Builder<I, ServerSentEvent>, LoadBalancingHttpClient<I, ServerSentEvent>>() {
@@ -41,22 +89,169 @@ public class SSEClient<I> extends LoadBalancingHttpClient<I, ServerSentEvent> {
     
     private SSEClient(LoadBalancingHttpClient.Builder<I, ServerSentEvent> t1) {
         super(t1);
+        reconnectDelayMillis = getProperty(CommonClientConfigKey.SSEReconnectDelayMilliSeconds, null, DEFAULT_RECONNECT_DELAY_MILLIS);
     }
 
-
+    /**
+     * Create a client without connection pooling, as event stream connections are held for as long as the stream lasts.
+     * The client is cached per server like any other {@link LoadBalancingHttpClient}.
+     */
     @Override
-    protected HttpClient<I, ServerSentEvent> getOrCreateRxClient(Server server) {
+    protected HttpClient<I, ServerSentEvent> createRxClient(Server server) {
         HttpClientBuilder<I, ServerSentEvent> clientBuilder =
                 new HttpClientBuilder<I, ServerSentEvent>(server.getHost(), server.getPort()).pipelineConfigurator(pipelineConfigurator);
         int requestConnectTimeout = getProperty(IClientConfigKey.Keys.ConnectTimeout, null, DefaultClientConfigImpl.DEFAULT_CONNECT_TIMEOUT);
         RxClient.ClientConfig rxClientConfig = new HttpClientConfig.Builder().build();
-        
+        configureTransport(clientBuilder, false);
+
         HttpClient<I, ServerSentEvent> client = clientBuilder.channelOption(
                 ChannelOption.CONNECT_TIMEOUT_MILLIS, requestConnectTimeout).config(rxClientConfig).build();
         return client;
     }
 
+    /**
+     * Observe the event stream at the given URI. All subscribers to the same URI share one upstream connection,
+     * which is opened on the first subscription and closed when the last subscriber unsubscribes. Each subscriber
+     * buffers up to {@link CommonClientConfigKey#SSEBufferSize} events it has not yet requested, so a slow subscriber
+     * does not hold back the others. A subscriber that falls further behind gets a
+     * {@link rx.exceptions.MissingBackpressureException} while the others keep receiving events.
+     * <p>
+     * When the connection ends or fails it is re-established after a reconnect delay, resuming from the id of
+     * the last event seen. The delay doubles with every attempt that does not get an event, up to
+     * {@link CommonClientConfigKey#SSEMaxReconnectDelayMilliSeconds}. The stream fails once the attempts are exhausted
+     * or the server answers with a 4xx status other than 429.
+     */
+    public Observable<ServerSentEvent> observeEvents(final String uri) {
+        Observable<ServerSentEvent> stream = sharedStreams.get(uri);
+        if (stream == null) {
+            Observable<ServerSentEvent> newStream = createSharedStream(uri);
+            stream = sharedStreams.putIfAbsent(uri, newStream);
+            if (stream == null) {
+                stream = newStream;
+            }
+        }
+        final int bufferSize = getProperty(CommonClientConfigKey.SSEBufferSize, null, DEFAULT_BUFFER_SIZE);
+        return stream.onBackpressureBuffer(bufferSize, new Action0() {
+            @Override
+            public void call() {
+                logger.warn("[{}] Subscriber to event stream {} fell more than {} events behind, dropping it", name(), uri, bufferSize);
+            }
+        });
+    }
+
+    private Observable<ServerSentEvent> createSharedStream(final String uri) {
+        final AtomicReference<String> lastEventId = new AtomicReference<String>();
+        final AtomicReference<Observable<ServerSentEvent>> self = new AtomicReference<Observable<ServerSentEvent>>();
+        final AtomicInteger attempts = new AtomicInteger();
+        Observable<ServerSentEvent> stream = Observable.defer(new Func0<Observable<HttpClientResponse<ServerSentEvent>>>() {
+                    @Override
+                    public Observable<HttpClientResponse<ServerSentEvent>> call() {
+                        HttpClientRequest<I> request = HttpClientRequest.<I>createGet(uri);
+                        String eventId = lastEventId.get();
+                        if (eventId != null) {
+                            request.withHeader(LAST_EVENT_ID_HEADER, eventId);
+                        }
+                        return submit(request);
+                    }
+                })
+                .flatMap(new Func1<HttpClientResponse<ServerSentEvent>, Observable<ServerSentEvent>>() {
+                    @Override
+                    public Observable<ServerSentEvent> call(HttpClientResponse<ServerSentEvent> response) {
+                        int status = response.getStatus().code();
+                        if (status / 100 == 4 && status != 429) {
+                            return Observable.error(new UnexpectedHttpResponseException(status, response.getStatus().toString()));
+                        }
+                        return response.getContent();
+                    }
+                })
+                .doOnNext(new Action1<ServerSentEvent>() {
+                    @Override
+                    public void call(ServerSentEvent event) {
+                        attempts.set(0);
+                        if (event.getEventId() != null) {
+                            lastEventId.set(event.getEventId());
+                        }
+                    }
+                })
+                .repeatWhen(new Func1<Observable<? extends Void>, Observable<?>>() {
+                    @Override
+                    public Observable<?> call(Observable<? extends Void> completions) {
+                        return completions.flatMap(new Func1<Void, Observable<Long>>() {
+                            @Override
+                            public Observable<Long> call(Void ignore) {
+                                return reconnect(uri, attempts, null);
+                            }
+                        });
+                    }
+                })
+                .retryWhen(new Func1<Observable<? extends Throwable>, Observable<?>>() {
+                    @Override
+                    public Observable<?> call(Observable<? extends Throwable> errors) {
+                        return errors.flatMap(new Func1<Throwable, Observable<Long>>() {
+                            @Override
+                            public Observable<Long> call(Throwable e) {
+                                return reconnect(uri, attempts, e);
+                            }
+                        });
+                    }
+                })
+                .doOnUnsubscribe(new Action0() {
+                    @Override
+                    public void call() {
+                        // last subscriber is gone
+                        sharedStreams.remove(uri, self.get());
+                    }
+                })
+                .share();
+        self.set(stream);
+        return stream;
+    }
+
+    /**
+     * @param e the error the stream failed with or null if it ended
+     * @return a timer that fires when the stream should reconnect, or the error to end the stream with
+     */
+    private Observable<Long> reconnect(String uri, AtomicInteger attempts, Throwable e) {
+        if (e instanceof UnexpectedHttpResponseException) {
+            logger.warn("[{}] Event stream {} was rejected, not reconnecting: {}", name(), uri,
+                    ((UnexpectedHttpResponseException) e).getStatusLine());
+            return Observable.error(e);
+        }
+        int maxAttempts = getProperty(CommonClientConfigKey.SSEMaxReconnectAttempts, null, DEFAULT_MAX_RECONNECT_ATTEMPTS);
+        int attempt = attempts.getAndIncrement();
+        if (maxAttempts >= 0 && attempt >= maxAttempts) {
+            // also reached by the error ending the stream below, which goes through retryWhen as well
+            if (e == null) {
+                e = new ClientException(ClientException.ErrorType.NUMBEROF_RETRIES_NEXTSERVER_EXCEEDED,
+                        "Event stream " + uri + " could not be re-established after " + attempt + " attempts");
+            }
+            logger.warn("[{}] Giving up on event stream {} after {} attempts", name(), uri, attempt, e);
+            return Observable.error(e);
+        }
+        long maxDelay = getProperty(CommonClientConfigKey.SSEMaxReconnectDelayMilliSeconds, null, DEFAULT_MAX_RECONNECT_DELAY_MILLIS);
+        long delay = Math.min(reconnectDelayMillis << Math.min(attempt, 20), maxDelay);
+        logger.debug("[{}] Event stream {} {}, reconnecting in {} ms", name(), uri, e == null ? "ended" : "failed", delay, e);
+        return Observable.timer(delay, TimeUnit.MILLISECONDS, HashedWheelScheduler.getDefault());
+    }
+
+    /**
+     * Set the delay before the first attempt to re-establish a stream, overriding
+     * {@link CommonClientConfigKey#SSEReconnectDelayMilliSeconds}
+     */
+    public void setReconnectDelay(long delay, TimeUnit unit) {
+        this.reconnectDelayMillis = unit.toMillis(delay);
+    }
+
+    @VisibleForTesting
+    int getSharedStreamCount() {
+        return sharedStreams.size();
+    }
+
+    /**
+     * SSE connections are long lived and not pooled, so there is nothing to prime
+     */
     @Override
-    public void shutdown() {
+    public Observable<PrimeConnectionEndStats> primeConnections(List<Server> servers) {
+        return Observable.just(new PrimeConnectionEndStats(0, 0, 0, 0));
     }
 }
@@ -0,0 +1,501 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelOption;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.client.ClientBuilder;
+import io.reactivex.netty.client.ClientMetricsEvent;
+import io.reactivex.netty.client.RxClient;
+import io.reactivex.netty.metrics.MetricEventsListener;
+import io.reactivex.netty.servo.tcp.TcpClientListener;
+
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Actions;
+import rx.functions.Func1;
+import rx.subscriptions.Subscriptions;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.client.ClientException;
+import com.netflix.client.RetryHandler;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.client.config.IClientConfigKey;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.reactive.LoadBalancerCommand;
+import com.netflix.loadbalancer.reactive.ServerOperation;
+import com.netflix.ribbon.transport.netty.LoadBalancingRxClient;
+import com.netflix.ribbon.transport.netty.HashedWheelScheduler;
+
+/**
+ * A load balancing TCP client for request/response protocols that pipelines many requests over a small, fixed
+ * set of long lived connections per server instead of using one connection per request.
+ * <p>
+ * Requests and responses are framed by {@link MultiplexedFramePipelineConfigurator} and carry a correlation id,
+ * so the server may answer requests in any order. Each server gets up to
+ * {@link CommonClientConfigKey#MultiplexedConnectionsPerServer} connections, each of which carries at most
+ * {@link CommonClientConfigKey#MaxInFlightRequestsPerConnection} outstanding requests. A request that finds all
+ * connections to the chosen server at their limit fails with a {@link ClientException} of type
+ * {@link ClientException.ErrorType#CLIENT_THROTTLED}. Each request is bounded by
+ * {@link CommonClientConfigKey#ReadTimeout} and fails with a {@link SocketTimeoutException} when it expires.
+ */
+public class LoadBalancingMultiplexedTcpClient extends LoadBalancingRxClient<MultiplexedFrame, MultiplexedFrame, RxClient<MultiplexedFrame, MultiplexedFrame>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadBalancingMultiplexedTcpClient.class);
+
+    private final ConcurrentMap<Server, ServerConnections> connections = new ConcurrentHashMap<Server, ServerConnections>();
+    private final int connectionsPerServer;
+    private final int maxInFlightPerConnection;
+
+    public LoadBalancingMultiplexedTcpClient(ILoadBalancer lb, IClientConfig config, RetryHandler retryHandler) {
+        super(lb, config, retryHandler, new MultiplexedFramePipelineConfigurator(config.getOrDefault(CommonClientConfigKey.MaxFrameLength)));
+        this.connectionsPerServer = Math.max(1, config.getOrDefault(CommonClientConfigKey.MultiplexedConnectionsPerServer));
+        this.maxInFlightPerConnection = Math.max(1, config.getOrDefault(CommonClientConfigKey.MaxInFlightRequestsPerConnection));
+    }
+
+    public LoadBalancingMultiplexedTcpClient(IClientConfig config, RetryHandler retryHandler) {
+        super(config, retryHandler, new MultiplexedFramePipelineConfigurator(config.getOrDefault(CommonClientConfigKey.MaxFrameLength)));
+        this.connectionsPerServer = Math.max(1, config.getOrDefault(CommonClientConfigKey.MultiplexedConnectionsPerServer));
+        this.maxInFlightPerConnection = Math.max(1, config.getOrDefault(CommonClientConfigKey.MaxInFlightRequestsPerConnection));
+    }
+
+    /**
+     * Send a request to a server chosen by the load balancer and emit its response. The client takes ownership
+     * of the payload and releases it when the returned {@link Observable} terminates or is unsubscribed.
+     */
+    public Observable<ByteBuf> submit(ByteBuf payload) {
+        return submit(payload, null);
+    }
+
+    /**
+     * Send a request to a server chosen by the load balancer and emit its response. The client takes ownership
+     * of the payload and releases it when the returned {@link Observable} terminates or is unsubscribed.
+     *
+     * @param retryHandler retry handler for this request, or null to use the client's default
+     */
+    public Observable<ByteBuf> submit(final ByteBuf payload, RetryHandler retryHandler) {
+        final int readTimeout = getProperty(IClientConfigKey.Keys.ReadTimeout, null, DefaultClientConfigImpl.DEFAULT_READ_TIMEOUT);
+        final AtomicBoolean released = new AtomicBoolean();
+        Action0 releasePayload = new Action0() {
+            @Override
+            public void call() {
+                if (released.compareAndSet(false, true)) {
+                    payload.release();
+                }
+            }
+        };
+        return LoadBalancerCommand.<ByteBuf>builder()
+                .withLoadBalancerContext(lbContext)
+                .withRetryHandler(retryHandler == null ? defaultRetryHandler : retryHandler)
+                .build()
+                .submit(new ServerOperation<ByteBuf>() {
+                    @Override
+                    public Observable<ByteBuf> call(Server server) {
+                        return getOrCreateConnections(server).submit(payload)
+                                .timeout(readTimeout, TimeUnit.MILLISECONDS, Observable.<ByteBuf>error(
+                                        new SocketTimeoutException("No response from " + server + " within " + readTimeout + " ms")),
+                                        HashedWheelScheduler.getDefault());
+                    }
+                })
+                .doOnTerminate(releasePayload)
+                .doOnUnsubscribe(releasePayload);
+    }
+
+    @Override
+    protected RxClient<MultiplexedFrame, MultiplexedFrame> createRxClient(Server server) {
+        ClientBuilder<MultiplexedFrame, MultiplexedFrame> builder = RxNetty.newTcpClientBuilder(server.getHost(), server.getPort());
+        builder.pipelineConfigurator(pipelineConfigurator);
+        Integer connectTimeout = getProperty(IClientConfigKey.Keys.ConnectTimeout, null, DefaultClientConfigImpl.DEFAULT_CONNECT_TIMEOUT);
+        builder.channelOption(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout);
+        configureTransport(builder, false);
+        // connections are long lived and owned by this client, not by a pool
+        builder.withNoConnectionPooling();
+        return builder.build();
+    }
+
+    @Override
+    protected MetricEventsListener<? extends ClientMetricsEvent<?>> createListener(String name) {
+        return TcpClientListener.newListener(name);
+    }
+
+    @Override
+    protected RxClient<MultiplexedFrame, MultiplexedFrame> removeClient(Server server) {
+        ServerConnections serverConnections = connections.remove(server);
+        if (serverConnections != null) {
+            serverConnections.close(false);
+        }
+        return super.removeClient(server);
+    }
+
+    @Override
+    protected RxClient<MultiplexedFrame, MultiplexedFrame> drainClient(Server server) {
+        ServerConnections serverConnections = connections.remove(server);
+        if (serverConnections != null) {
+            serverConnections.close(true);
+        }
+        return super.drainClient(server);
+    }
+
+    @Override
+    public void shutdown() {
+        for (Server server : connections.keySet()) {
+            ServerConnections serverConnections = connections.remove(server);
+            if (serverConnections != null) {
+                serverConnections.close(false);
+            }
+        }
+        super.shutdown();
+    }
+
+    @VisibleForTesting
+    int getOpenConnectionCount(Server server) {
+        ServerConnections serverConnections = connections.get(server);
+        return serverConnections == null ? 0 : serverConnections.getOpenConnectionCount();
+    }
+
+    private ServerConnections getOrCreateConnections(Server server) {
+        ServerConnections serverConnections = connections.get(server);
+        if (serverConnections != null) {
+            return serverConnections;
+        }
+        return connections.computeIfAbsent(server, new Function<Server, ServerConnections>() {
+            @Override
+            public ServerConnections apply(Server s) {
+                return new ServerConnections(s);
+            }
+        });
+    }
+
+    /**
+     * The fixed set of connection slots to one server. Slots are connected lazily and reconnected on the next
+     * request after their connection is closed or fails to connect.
+     */
+    private class ServerConnections {
+
+        private final Server server;
+        private final AtomicReferenceArray<Observable<MultiplexedConnection>> slots;
+        private final AtomicInteger nextSlot = new AtomicInteger();
+
+        ServerConnections(Server server) {
+            this.server = server;
+            this.slots = new AtomicReferenceArray<Observable<MultiplexedConnection>>(connectionsPerServer);
+        }
+
+        Observable<ByteBuf> submit(final ByteBuf payload) {
+            final int start = nextSlot.getAndIncrement() & Integer.MAX_VALUE;
+            // visit the slots round robin starting at a different one for each request, and take the
+            // first connection that still has room for another request
+            return Observable.range(0, slots.length())
+                    .concatMap(new Func1<Integer, Observable<MultiplexedConnection>>() {
+                        @Override
+                        public Observable<MultiplexedConnection> call(Integer i) {
+                            return slot((start + i) % slots.length());
+                        }
+                    })
+                    .filter(new Func1<MultiplexedConnection, Boolean>() {
+                        @Override
+                        public Boolean call(MultiplexedConnection connection) {
+                            return connection.tryAcquire();
+                        }
+                    })
+                    .firstOrDefault(null)
+                    .flatMap(new Func1<MultiplexedConnection, Observable<ByteBuf>>() {
+                        @Override
+                        public Observable<ByteBuf> call(MultiplexedConnection connection) {
+                            if (connection == null) {
+                                return Observable.error(new ClientException(ClientException.ErrorType.CLIENT_THROTTLED,
+                                        "All " + slots.length() + " connections to " + server + " have "
+                                        + maxInFlightPerConnection + " requests in flight"));
+                            }
+                            return connection.submit(payload);
+                        }
+                    });
+        }
+
+        private Observable<MultiplexedConnection> slot(final int index) {
+            Observable<MultiplexedConnection> existing = slots.get(index);
+            if (existing != null) {
+                return existing;
+            }
+            final Observable<MultiplexedConnection> connect = getOrCreateRxClient(server).connect()
+                    .map(new Func1<ObservableConnection<MultiplexedFrame, MultiplexedFrame>, MultiplexedConnection>() {
+                        @Override
+                        public MultiplexedConnection call(ObservableConnection<MultiplexedFrame, MultiplexedFrame> connection) {
+                            return new MultiplexedConnection(connection, maxInFlightPerConnection);
+                        }
+                    })
+                    .cache();
+            if (!slots.compareAndSet(index, null, connect)) {
+                // another request has filled the slot first
+                return slot(index);
+            }
+            final Action0 clearSlot = new Action0() {
+                @Override
+                public void call() {
+                    slots.compareAndSet(index, connect, null);
+                }
+            };
+            connect.subscribe(new Action1<MultiplexedConnection>() {
+                @Override
+                public void call(MultiplexedConnection connection) {
+                    connection.onClose(clearSlot);
+                }
+            }, new Action1<Throwable>() {
+                @Override
+                public void call(Throwable e) {
+                    logger.debug("[{}] Failed to connect to {}", name(), server, e);
+                    clearSlot.call();
+                }
+            });
+            return connect;
+        }
+
+        /**
+         * @param whenIdle if true, let the requests in flight complete before closing each connection
+         */
+        void close(final boolean whenIdle) {
+            for (int i = 0; i < slots.length(); i++) {
+                Observable<MultiplexedConnection> connect = slots.getAndSet(i, null);
+                if (connect != null) {
+                    connect.subscribe(new Action1<MultiplexedConnection>() {
+                        @Override
+                        public void call(MultiplexedConnection connection) {
+                            if (whenIdle) {
+                                connection.closeWhenIdle();
+                            } else {
+                                connection.close();
+                            }
+                        }
+                    }, Actions.empty());
+                }
+            }
+        }
+
+        int getOpenConnectionCount() {
+            int count = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Write a request frame holding its own reference to the payload, so that the payload stays readable for
+     * retries after the encoder releases the frame. The frame's reference is released if the write fails,
+     * including when it fails before reaching the encoder, for example because the channel is already closed.
+     */
+    @VisibleForTesting
+    static Observable<Void> writeFrame(ObservableConnection<MultiplexedFrame, MultiplexedFrame> connection,
+            int correlationId, ByteBuf payload) {
+        final MultiplexedFrame frame = new MultiplexedFrame(correlationId, payload.duplicate().retain());
+        Observable<Void> write;
+        try {
+            write = connection.writeAndFlush(frame);
+        } catch (RuntimeException e) {
+            frame.releasePayload();
+            throw e;
+        }
+        return write.doOnError(new Action1<Throwable>() {
+            @Override
+            public void call(Throwable e) {
+                frame.releasePayload();
+            }
+        });
+    }
+
+    /**
+     * One connection and the requests in flight on it, keyed by correlation id
+     */
+    private static class MultiplexedConnection {
+
+        private final ObservableConnection<MultiplexedFrame, MultiplexedFrame> connection;
+        private final int maxInFlight;
+        private final ConcurrentMap<Integer, PendingRequest> pending = new ConcurrentHashMap<Integer, PendingRequest>();
+        private final AtomicInteger nextCorrelationId = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile Action0 closeListener;
+        private volatile boolean closed;
+        private volatile boolean closeWhenIdle;
+
+        MultiplexedConnection(ObservableConnection<MultiplexedFrame, MultiplexedFrame> connection, int maxInFlight) {
+            this.connection = connection;
+            this.maxInFlight = maxInFlight;
+            connection.getInput().subscribe(new Subscriber<MultiplexedFrame>() {
+                @Override
+                public void onCompleted() {
+                    onClosed(new ClosedChannelException());
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    onClosed(e);
+                }
+
+                @Override
+                public void onNext(MultiplexedFrame frame) {
+                    PendingRequest request = pending.get(frame.getCorrelationId());
+                    if (request != null) {
+                        request.complete(frame.getPayload());
+                    } else {
+                        // the request has timed out or was unsubscribed
+                        logger.debug("Discarding response with unknown correlation id {}", frame.getCorrelationId());
+                    }
+                }
+            });
+        }
+
+        /**
+         * Reserve room for one more request on this connection. Every successful call must be followed by
+         * subscribing to {@link #submit(ByteBuf)}, which gives the reservation back when the request finishes.
+         */
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (closed || closeWhenIdle || current >= maxInFlight) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        Observable<ByteBuf> submit(final ByteBuf payload) {
+            return Observable.create(new OnSubscribe<ByteBuf>() {
+                @Override
+                public void call(Subscriber<? super ByteBuf> subscriber) {
+                    final PendingRequest request = new PendingRequest(nextCorrelationId.incrementAndGet(), subscriber);
+                    pending.put(request.correlationId, request);
+                    subscriber.add(Subscriptions.create(new Action0() {
+                        @Override
+                        public void call() {
+                            request.finish();
+                        }
+                    }));
+                    if (closed) {
+                        request.fail(new ClosedChannelException());
+                        return;
+                    }
+                    writeFrame(connection, request.correlationId, payload)
+                            .subscribe(Actions.empty(), new Action1<Throwable>() {
+                                @Override
+                                public void call(Throwable e) {
+                                    request.fail(e);
+                                }
+                            }, Actions.empty());
+                }
+            });
+        }
+
+        void onClose(Action0 listener) {
+            closeListener = listener;
+            if (closed) {
+                listener.call();
+            }
+        }
+
+        void closeWhenIdle() {
+            closeWhenIdle = true;
+            if (inFlight.get() == 0) {
+                close();
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                connection.close();
+            }
+        }
+
+        private void onClosed(Throwable e) {
+            closed = true;
+            for (PendingRequest request : pending.values()) {
+                request.fail(e);
+            }
+            Action0 listener = closeListener;
+            if (listener != null) {
+                listener.call();
+            }
+        }
+
+        private void release() {
+            if (inFlight.decrementAndGet() == 0 && closeWhenIdle) {
+                close();
+            }
+        }
+
+        private class PendingRequest {
+
+            private final int correlationId;
+            private final Subscriber<? super ByteBuf> subscriber;
+            private final AtomicBoolean done = new AtomicBoolean();
+
+            PendingRequest(int correlationId, Subscriber<? super ByteBuf> subscriber) {
+                this.correlationId = correlationId;
+                this.subscriber = subscriber;
+            }
+
+            void complete(ByteBuf response) {
+                if (finish()) {
+                    subscriber.onNext(response);
+                    subscriber.onCompleted();
+                }
+            }
+
+            void fail(Throwable e) {
+                if (finish()) {
+                    subscriber.onError(e);
+                }
+            }
+
+            boolean finish() {
+                if (done.compareAndSet(false, true)) {
+                    pending.remove(correlationId);
+                    release();
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+}
@@ -59,10 +59,12 @@ public class LoadBalancingTcpClient<I, O> extends LoadBalancingRxClientWithPoolO
         }
         Integer connectTimeout = getProperty(IClientConfigKey.Keys.ConnectTimeout, null, DefaultClientConfigImpl.DEFAULT_CONNECT_TIMEOUT);
         builder.channelOption(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout);
+        configureTransport(builder, false);
         if (isPoolEnabled()) {
             builder.withConnectionPoolLimitStrategy(poolStrategy)
             .withIdleConnectionsTimeoutMillis(idleConnectionEvictionMills)
             .withPoolIdleCleanupScheduler(poolCleanerScheduler);
+            configureMaxConnectionAge(builder);
         } else {
             builder.withNoConnectionPooling();
         }
@@ -0,0 +1,65 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty.tcp;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A single request or response on a multiplexed TCP connection. The correlation id is chosen by the client
+ * and must be echoed back by the server with the response so that responses can be matched to their requests
+ * regardless of the order in which they arrive.
+ * <p>
+ * An outbound frame owns one reference to its payload, which is released exactly once through
+ * {@link #releasePayload()}: by the encoder once the frame is written, or by the writer if the write fails first.
+ *
+ * @see MultiplexedFramePipelineConfigurator
+ */
+public class MultiplexedFrame {
+
+    private final int correlationId;
+    private final ByteBuf payload;
+    private final AtomicBoolean payloadReleased = new AtomicBoolean();
+
+    public MultiplexedFrame(int correlationId, ByteBuf payload) {
+        this.correlationId = correlationId;
+        this.payload = payload;
+    }
+
+    public final int getCorrelationId() {
+        return correlationId;
+    }
+
+    public final ByteBuf getPayload() {
+        return payload;
+    }
+
+    /**
+     * Release the reference to the payload held by this frame, unless it has been released already
+     *
+     * @return true if this call released the reference
+     */
+    public boolean releasePayload() {
+        if (payloadReleased.compareAndSet(false, true)) {
+            payload.release();
+            return true;
+        }
+        return false;
+    }
+}
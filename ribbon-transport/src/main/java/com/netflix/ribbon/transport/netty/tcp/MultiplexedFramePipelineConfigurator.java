@@ -0,0 +1,96 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.reactivex.netty.pipeline.PipelineConfigurator;
+
+/**
+ * Pipeline configurator for the framing used by {@link LoadBalancingMultiplexedTcpClient}. Each frame on the wire is
+ * <pre>
+ * +----------------+------------------+-----------------+
+ * | length (int32) | correlation id   | payload         |
+ * |                | (int32)          | (length - 4)    |
+ * +----------------+------------------+-----------------+
+ * </pre>
+ * where length counts the bytes following the length field. The same configurator can be used on the server side
+ * of the protocol.
+ * <p>
+ * Decoded payloads are copied into unpooled heap buffers, so they do not need to be released. The payload of
+ * an outbound frame is released once it has been written.
+ */
+public class MultiplexedFramePipelineConfigurator implements PipelineConfigurator<MultiplexedFrame, MultiplexedFrame> {
+
+    static final int LENGTH_FIELD_LENGTH = 4;
+    static final int CORRELATION_ID_LENGTH = 4;
+
+    private final int maxFrameLength;
+
+    public MultiplexedFramePipelineConfigurator(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    public void configureNewPipeline(ChannelPipeline pipeline) {
+        pipeline.addLast(new FrameDecoder(maxFrameLength));
+        pipeline.addLast(new FrameEncoder());
+    }
+
+    static class FrameDecoder extends LengthFieldBasedFrameDecoder {
+
+        FrameDecoder(int maxFrameLength) {
+            super(maxFrameLength, 0, LENGTH_FIELD_LENGTH, 0, LENGTH_FIELD_LENGTH);
+        }
+
+        @Override
+        protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+            ByteBuf frame = (ByteBuf) super.decode(ctx, in);
+            if (frame == null) {
+                return null;
+            }
+            try {
+                int correlationId = frame.readInt();
+                ByteBuf payload = Unpooled.buffer(frame.readableBytes());
+                frame.readBytes(payload);
+                return new MultiplexedFrame(correlationId, payload);
+            } finally {
+                frame.release();
+            }
+        }
+    }
+
+    static class FrameEncoder extends MessageToByteEncoder<MultiplexedFrame> {
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, MultiplexedFrame msg, ByteBuf out) throws Exception {
+            ByteBuf payload = msg.getPayload();
+            try {
+                out.writeInt(CORRELATION_ID_LENGTH + payload.readableBytes());
+                out.writeInt(msg.getCorrelationId());
+                out.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+            } finally {
+                msg.releasePayload();
+            }
+        }
+    }
+}
@@ -17,12 +17,9 @@
  */
 package com.netflix.ribbon.transport.netty.udp;
 
-import com.netflix.client.RetryHandler;
-import com.netflix.client.config.IClientConfig;
-import com.netflix.ribbon.transport.netty.LoadBalancingRxClient;
-import com.netflix.loadbalancer.ILoadBalancer;
-import com.netflix.loadbalancer.Server;
+import io.netty.channel.Channel;
 import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ObservableConnection;
 import io.reactivex.netty.client.ClientMetricsEvent;
 import io.reactivex.netty.client.RxClient;
 import io.reactivex.netty.metrics.MetricEventsListener;
@@ -30,8 +27,51 @@ import io.reactivex.netty.pipeline.PipelineConfigurator;
 import io.reactivex.netty.protocol.udp.client.UdpClientBuilder;
 import io.reactivex.netty.servo.udp.UdpClientListener;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Subscriber;
+import rx.functions.Action1;
+import rx.functions.Actions;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.client.ClientException;
+import com.netflix.client.RetryHandler;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.client.config.IClientConfigKey;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.reactive.LoadBalancerCommand;
+import com.netflix.loadbalancer.reactive.ServerOperation;
+import com.netflix.ribbon.transport.netty.LoadBalancingRxClient;
+import com.netflix.ribbon.transport.netty.HashedWheelScheduler;
+
+/**
+ * A load balancing UDP client.
+ * <p>
+ * {@link #connect()} creates a new channel for every call. {@link #submit(byte[], Func1)} and
+ * {@link #scatter(byte[], int, Func1)} instead share one channel per server, which is created on first use and
+ * kept until the server is removed from the load balancer. Since responses on a shared channel are not
+ * correlated with requests, callers pass a predicate that recognizes the response to their request.
+ * Datagrams written through the shared channels are flushed in batches on the channel's event loop.
+ */
 public class LoadBalancingUdpClient<I, O> extends LoadBalancingRxClient<I, O, RxClient<I,O>> implements RxClient<I, O> {
 
+    private final ConcurrentMap<Server, Observable<PooledChannel>> channels = new ConcurrentHashMap<Server, Observable<PooledChannel>>();
+
     public LoadBalancingUdpClient(IClientConfig config,
             RetryHandler retryHandler,
             PipelineConfigurator<O, I> pipelineConfigurator) {
@@ -45,12 +85,170 @@ public class LoadBalancingUdpClient<I, O> extends LoadBalancingRxClient<I, O, Rx
         super(lb, config, retryHandler, pipelineConfigurator);
     }
 
+    /**
+     * Send a datagram to a server chosen by the load balancer and emit the first datagram received from it
+     * that matches the predicate, or fail with a {@link java.util.concurrent.TimeoutException} after
+     * {@link IClientConfigKey.Keys#ReadTimeout}.
+     */
+    public Observable<O> submit(byte[] content, Func1<? super O, Boolean> isResponse) {
+        return submit(content, isResponse, getReadTimeout());
+    }
+
+    public Observable<O> submit(final byte[] content, final Func1<? super O, Boolean> isResponse, final int timeoutMillis) {
+        return LoadBalancerCommand.<O>builder()
+                .withLoadBalancerContext(lbContext)
+                .withRetryHandler(defaultRetryHandler)
+                .build()
+                .submit(new ServerOperation<O>() {
+                    @Override
+                    public Observable<O> call(Server server) {
+                        return send(server, content, isResponse, timeoutMillis);
+                    }
+                });
+    }
+
+    /**
+     * Send the same datagram to up to fanOut distinct servers chosen by the load balancer and emit the first
+     * matching response from any of them. Fails only if none of the servers responds within
+     * {@link IClientConfigKey.Keys#ReadTimeout}.
+     */
+    public Observable<O> scatter(byte[] content, int fanOut, Func1<? super O, Boolean> isResponse) {
+        return scatter(content, fanOut, isResponse, getReadTimeout());
+    }
+
+    public Observable<O> scatter(final byte[] content, final int fanOut, final Func1<? super O, Boolean> isResponse, final int timeoutMillis) {
+        return Observable.defer(new Func0<Observable<O>>() {
+            @Override
+            public Observable<O> call() {
+                Set<Server> targets = chooseServers(fanOut);
+                if (targets.isEmpty()) {
+                    return Observable.<O>error(new ClientException(ClientException.ErrorType.GENERAL,
+                            "Load balancer does not have available server for client: " + name()));
+                }
+                List<Observable<O>> legs = new ArrayList<Observable<O>>(targets.size());
+                for (Server target : targets) {
+                    legs.add(LoadBalancerCommand.<O>builder()
+                            .withLoadBalancerContext(lbContext)
+                            .withRetryHandler(defaultRetryHandler)
+                            .withServer(target)
+                            .build()
+                            .submit(new ServerOperation<O>() {
+                                @Override
+                                public Observable<O> call(Server server) {
+                                    return send(server, content, isResponse, timeoutMillis);
+                                }
+                            }));
+                }
+                // errors of single legs only surface if no leg responds
+                return Observable.mergeDelayError(Observable.from(legs)).take(1);
+            }
+        });
+    }
+
+    private Set<Server> chooseServers(int fanOut) {
+        Set<Server> servers = new LinkedHashSet<Server>();
+        // the rule may pick the same server more than once, so give it a few more chances
+        for (int i = 0; i < fanOut * 2 && servers.size() < fanOut; i++) {
+            Server server = lbContext.getLoadBalancer().chooseServer(null);
+            if (server == null) {
+                break;
+            }
+            servers.add(server);
+        }
+        return servers;
+    }
+
+    private int getReadTimeout() {
+        return getProperty(IClientConfigKey.Keys.ReadTimeout, null, DefaultClientConfigImpl.DEFAULT_READ_TIMEOUT);
+    }
+
+    private Observable<O> send(Server server, final byte[] content, final Func1<? super O, Boolean> isResponse, int timeoutMillis) {
+        return getOrCreateChannel(server).flatMap(new Func1<PooledChannel, Observable<O>>() {
+            @Override
+            public Observable<O> call(final PooledChannel channel) {
+                return Observable.create(new OnSubscribe<O>() {
+                    @Override
+                    public void call(Subscriber<? super O> subscriber) {
+                        // listen before writing so that a fast response is not missed
+                        channel.input.filter(isResponse).take(1).unsafeSubscribe(subscriber);
+                        channel.write(content);
+                    }
+                });
+            }
+        }).timeout(timeoutMillis, TimeUnit.MILLISECONDS, HashedWheelScheduler.getDefault());
+    }
+
+    private Observable<PooledChannel> getOrCreateChannel(final Server server) {
+        Observable<PooledChannel> existing = channels.get(server);
+        if (existing != null) {
+            return existing;
+        }
+        final Observable<PooledChannel> channel = getOrCreateRxClient(server).connect()
+                .map(new Func1<ObservableConnection<O, I>, PooledChannel>() {
+                    @Override
+                    public PooledChannel call(ObservableConnection<O, I> connection) {
+                        return new PooledChannel(connection);
+                    }
+                })
+                .cache();
+        existing = channels.putIfAbsent(server, channel);
+        if (existing != null) {
+            return existing;
+        }
+        channel.subscribe(Actions.empty(), new Action1<Throwable>() {
+            @Override
+            public void call(Throwable e) {
+                // try again with a new channel on the next request
+                channels.remove(server, channel);
+            }
+        });
+        return channel;
+    }
+
+    private void closeChannel(Server server) {
+        Observable<PooledChannel> channel = channels.remove(server);
+        if (channel != null) {
+            channel.subscribe(new Action1<PooledChannel>() {
+                @Override
+                public void call(PooledChannel pooled) {
+                    pooled.connection.close();
+                }
+            }, Actions.empty());
+        }
+    }
+
+    @Override
+    protected RxClient<I, O> removeClient(Server server) {
+        closeChannel(server);
+        return super.removeClient(server);
+    }
+
+    @Override
+    protected RxClient<I, O> drainClient(Server server) {
+        closeChannel(server);
+        return super.drainClient(server);
+    }
+
+    @Override
+    public void shutdown() {
+        for (Server server : channels.keySet()) {
+            closeChannel(server);
+        }
+        super.shutdown();
+    }
+
+    @VisibleForTesting
+    Set<Server> getPooledServers() {
+        return channels.keySet();
+    }
+
     @Override
     protected RxClient<I, O> createRxClient(Server server) {
         UdpClientBuilder<I, O> builder = RxNetty.newUdpClientBuilder(server.getHost(), server.getPort());
         if (pipelineConfigurator != null) {
             builder.pipelineConfigurator(pipelineConfigurator);
         }
+        configureTransport(builder, true);
         return builder.build();
     }
 
@@ -59,4 +257,40 @@ public class LoadBalancingUdpClient<I, O> extends LoadBalancingRxClient<I, O, Rx
             String name) {
         return UdpClientListener.newUdpListener(name);
     }
+
+    /**
+     * A channel shared by all requests to one server. Writes are queued and written with a single flush by
+     * one task on the channel's event loop, instead of waking up the event loop for every datagram.
+     */
+    private class PooledChannel {
+
+        private final ObservableConnection<O, I> connection;
+        private final Observable<O> input;
+        private final Queue<byte[]> pendingWrites = new ConcurrentLinkedQueue<byte[]>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final Runnable flushTask = new Runnable() {
+            @Override
+            public void run() {
+                flushScheduled.set(false);
+                byte[] content;
+                while ((content = pendingWrites.poll()) != null) {
+                    connection.writeBytes(content);
+                }
+                connection.getChannel().flush();
+            }
+        };
+
+        PooledChannel(ObservableConnection<O, I> connection) {
+            this.connection = connection;
+            this.input = connection.getInput().share();
+        }
+
+        void write(byte[] content) {
+            pendingWrites.add(content);
+            if (flushScheduled.compareAndSet(false, true)) {
+                Channel channel = connection.getChannel();
+                channel.eventLoop().execute(flushTask);
+            }
+        }
+    }
 }
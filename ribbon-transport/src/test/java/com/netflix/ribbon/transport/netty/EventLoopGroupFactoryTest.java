@@ -0,0 +1,112 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.EventExecutor;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import rx.functions.Func1;
+
+import com.google.mockwebserver.MockResponse;
+import com.google.mockwebserver.MockWebServer;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.ribbon.transport.netty.http.LoadBalancingHttpClient;
+
+public class EventLoopGroupFactoryTest {
+
+    @AfterClass
+    public static void shutdown() {
+        EventLoopGroupFactory.shutdown();
+    }
+
+    @Test
+    public void testGroupsAreSharedByName() {
+        EventLoopGroup group = EventLoopGroupFactory.getOrCreate("shared", 1, false);
+        assertTrue(group instanceof NioEventLoopGroup);
+        assertSame(group, EventLoopGroupFactory.getOrCreate("shared", 4, false));
+        assertNotSame(group, EventLoopGroupFactory.getOrCreate("dedicated", 1, false));
+        assertEquals(NioSocketChannel.class, EventLoopGroupFactory.socketChannelClass(group));
+    }
+
+    @Test
+    public void testNativeTransportFallsBackToNio() {
+        EventLoopGroup group = EventLoopGroupFactory.getOrCreate("native", 1, true);
+        if (EventLoopGroupFactory.isNativeTransportAvailable()) {
+            assertTrue(group instanceof EpollEventLoopGroup);
+            assertEquals(EpollSocketChannel.class, EventLoopGroupFactory.socketChannelClass(group));
+        } else {
+            assertTrue(group instanceof NioEventLoopGroup);
+        }
+    }
+
+    @Test
+    public void testClientOnDedicatedGroup() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("Hello world"));
+        server.play();
+        try {
+            IClientConfig config = IClientConfig.Builder.newBuilder().withDefaultValues().build()
+                    .set(CommonClientConfigKey.EventLoopGroupName, "dedicated-client")
+                    .set(CommonClientConfigKey.UseNativeTransport, true)
+                    .set(CommonClientConfigKey.TcpNoDelay, true)
+                    .set(CommonClientConfigKey.SoKeepAlive, true);
+            LoadBalancingHttpClient<ByteBuf, ByteBuf> client = RibbonTransport.newHttpClient(config);
+            EventLoopGroup group = EventLoopGroupFactory.getOrCreate("dedicated-client", 0, true);
+            try {
+                // the response is emitted on the event loop of the channel it was received on
+                Thread eventLoopThread = client.submit(HttpClientRequest.<ByteBuf>createGet("http://localhost:" + server.getPort() + "/"))
+                        .map(new Func1<HttpClientResponse<ByteBuf>, Thread>() {
+                            @Override
+                            public Thread call(HttpClientResponse<ByteBuf> response) {
+                                assertEquals(200, response.getStatus().code());
+                                return Thread.currentThread();
+                            }
+                        })
+                        .toBlocking().single();
+                boolean inGroup = false;
+                for (EventExecutor eventLoop : group) {
+                    inGroup |= eventLoop.inEventLoop(eventLoopThread);
+                }
+                assertTrue("Channel is not on the dedicated event loop group: " + eventLoopThread.getName(), inGroup);
+            } finally {
+                client.shutdown();
+                assertSame(group, EventLoopGroupFactory.shutdown("dedicated-client"));
+                assertTrue(group.awaitTermination(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+}
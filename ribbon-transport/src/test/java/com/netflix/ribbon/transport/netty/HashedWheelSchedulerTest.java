@@ -0,0 +1,97 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import rx.Observable;
+import rx.Scheduler.Worker;
+import rx.Subscription;
+import rx.functions.Action0;
+
+public class HashedWheelSchedulerTest {
+
+    private final HashedWheelScheduler scheduler = HashedWheelScheduler.getDefault();
+
+    @Test
+    public void testDelayedTaskRuns() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Worker worker = scheduler.createWorker();
+        long start = System.currentTimeMillis();
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 50);
+        worker.unsubscribe();
+    }
+
+    @Test
+    public void testCancelledTasksDoNotRun() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        Action0 action = new Action0() {
+            @Override
+            public void call() {
+                runs.incrementAndGet();
+            }
+        };
+        Worker worker = scheduler.createWorker();
+        Subscription task = worker.schedule(action, 50, TimeUnit.MILLISECONDS);
+        task.unsubscribe();
+        assertTrue(task.isUnsubscribed());
+
+        Worker other = scheduler.createWorker();
+        other.schedule(action, 50, TimeUnit.MILLISECONDS);
+        other.schedule(action, 60, TimeUnit.MILLISECONDS);
+        other.unsubscribe();
+        assertTrue(other.isUnsubscribed());
+        assertTrue(other.schedule(action, 10, TimeUnit.MILLISECONDS).isUnsubscribed());
+
+        Thread.sleep(200);
+        assertEquals(0, runs.get());
+        assertFalse(worker.isUnsubscribed());
+        worker.unsubscribe();
+    }
+
+    @Test
+    public void testTimeoutOperator() {
+        assertEquals(Long.valueOf(0), Observable.timer(20, TimeUnit.MILLISECONDS, scheduler)
+                .timeout(1, TimeUnit.SECONDS, scheduler)
+                .toBlocking()
+                .single());
+        try {
+            Observable.never().timeout(20, TimeUnit.MILLISECONDS, scheduler).toBlocking().single();
+            fail("Exception expected");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+}
@@ -200,7 +200,55 @@ public class NettyClientTest {
         assertEquals(1, listener.getPoolReuse());
     }
 
-    
+
+    @Test
+    public void testPrimeConnections() throws Exception {
+        IClientConfig config = IClientConfig.Builder.newBuilder().withDefaultValues().build()
+                .set(CommonClientConfigKey.EnablePrimeConnections, true)
+                .set(CommonClientConfigKey.PrimeConnectionsPerServer, 2);
+        BaseLoadBalancer lb = new BaseLoadBalancer(new DummyPing(), new AvailabilityFilteringRule());
+        lb.setServersList(Lists.newArrayList(new Server(host, port)));
+        LoadBalancingHttpClient<ByteBuf, ByteBuf> observableClient = RibbonTransport.newHttpClient(lb, config);
+        final HttpClientListener listener = observableClient.getListener();
+        // connections are primed in the background
+        waitUntilTrueOrTimeout(1000, new Func0<Boolean>() {
+            @Override
+            public Boolean call() {
+                return listener.getConnectionCount() == 2 && listener.getPoolReleases() == 2;
+            }
+        });
+
+        HttpClientRequest<ByteBuf> request = HttpClientRequest.createGet("/testAsync/person");
+        Person person = getPersonObservable(observableClient.submit(request)).toBlocking().single();
+        assertEquals(EmbeddedResources.defaultPerson, person);
+        assertEquals(2, listener.getConnectionCount());
+        assertEquals(1, listener.getPoolReuse());
+    }
+
+    @Test
+    public void testConnectionMaxAge() throws Exception {
+        IClientConfig config = IClientConfig.Builder.newBuilder().withDefaultValues().build()
+                .set(CommonClientConfigKey.ConnectionMaxAgeMilliSeconds, 2000)
+                .set(CommonClientConfigKey.ConnectionMaxAgeJitterMilliSeconds, 500);
+        BaseLoadBalancer lb = new BaseLoadBalancer(new DummyPing(), new AvailabilityFilteringRule());
+        lb.setServersList(Lists.newArrayList(new Server(host, port)));
+        LoadBalancingHttpClient<ByteBuf, ByteBuf> observableClient = RibbonTransport.newHttpClient(lb, config);
+        final HttpClientListener listener = observableClient.getListener();
+
+        // the connection lives for at least 1.5 seconds, plenty for two requests
+        HttpClientRequest<ByteBuf> request = HttpClientRequest.createGet("/testAsync/person");
+        assertEquals(EmbeddedResources.defaultPerson, getPersonObservable(observableClient.submit(request)).toBlocking().single());
+        assertEquals(EmbeddedResources.defaultPerson, getPersonObservable(observableClient.submit(request)).toBlocking().single());
+        assertEquals(1, listener.getConnectionCount());
+        assertEquals(1, listener.getPoolReuse());
+
+        // the pooled connection has expired and must not be reused
+        Thread.sleep(2500);
+        assertEquals(EmbeddedResources.defaultPerson, getPersonObservable(observableClient.submit(request)).toBlocking().single());
+        assertEquals(2, listener.getConnectionCount());
+        assertEquals(1, listener.getPoolReuse());
+    }
+
     @Test
     public void testPostWithObservable() throws Exception {
         Person myPerson = new Person("netty", 5);
@@ -0,0 +1,86 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty.http;
+
+import com.google.common.collect.Sets;
+import com.google.mockwebserver.MockResponse;
+import com.google.mockwebserver.MockWebServer;
+import com.netflix.loadbalancer.Server;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NettyPingUrlTest {
+
+    @Test
+    public void testPingReusesConnection() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("true"));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("true"));
+        server.play();
+        NettyPingUrl ping = new NettyPingUrl(false, "/healthcheck");
+        ping.setExpectedContent("true");
+        try {
+            Server target = new Server("localhost", server.getPort());
+            assertTrue(ping.isAlive(target));
+            assertTrue(ping.isAlive(target));
+            assertEquals(2, server.getRequestCount());
+            assertEquals("/healthcheck", server.takeRequest().getPath());
+            // second ping should have been sent on the pooled keep-alive connection
+            assertEquals(1, server.takeRequest().getSequenceNumber());
+        } finally {
+            ping.shutdown();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testPingServersConcurrently() throws Exception {
+        MockWebServer up = new MockWebServer();
+        up.enqueue(new MockResponse().setResponseCode(200));
+        up.play();
+        MockWebServer unhealthy = new MockWebServer();
+        unhealthy.enqueue(new MockResponse().setResponseCode(503));
+        unhealthy.play();
+        NettyPingUrl ping = new NettyPingUrl();
+        ping.setPingTimeout(1000);
+        try {
+            Server[] servers = new Server[] {
+                    new Server("localhost", up.getPort()),
+                    new Server("localhost", unhealthy.getPort()),
+                    new Server("localhost", 1)
+            };
+            boolean[] results = ping.pingServers(ping, servers);
+            assertTrue(results[0]);
+            assertFalse(results[1]);
+            assertFalse(results[2]);
+            assertEquals(Sets.newHashSet(servers), ping.getPooledServers());
+
+            // servers no longer in the list release their pools
+            up.enqueue(new MockResponse().setResponseCode(200));
+            ping.pingServers(ping, new Server[] {servers[0]});
+            assertEquals(Sets.newHashSet(servers[0]), ping.getPooledServers());
+        } finally {
+            ping.shutdown();
+            up.shutdown();
+            unhealthy.shutdown();
+        }
+    }
+}
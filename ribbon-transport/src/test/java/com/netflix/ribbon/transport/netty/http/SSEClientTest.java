@@ -0,0 +1,140 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty.http;
+
+import com.google.common.collect.Lists;
+import com.google.mockwebserver.MockResponse;
+import com.google.mockwebserver.MockWebServer;
+import com.google.mockwebserver.RecordedRequest;
+import com.netflix.client.ClientException;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.client.http.UnexpectedHttpResponseException;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.ribbon.transport.netty.RibbonTransport;
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.protocol.text.sse.ServerSentEvent;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SSEClientTest {
+
+    private static MockResponse eventStream(String body) {
+        return new MockResponse().setResponseCode(200).setHeader("Content-Type", "text/event-stream").setBody(body);
+    }
+
+    @Test
+    public void testSharedStreamResumesWithLastEventId() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(eventStream("id: 1\ndata: one\n\nid: 2\ndata: two\n\n"));
+        server.enqueue(eventStream("id: 3\ndata: three\n\n"));
+        server.play();
+        try {
+            BaseLoadBalancer lb = new BaseLoadBalancer();
+            lb.setServersList(Lists.newArrayList(new Server("localhost", server.getPort())));
+            SSEClient<ByteBuf> client = (SSEClient<ByteBuf>) RibbonTransport.newSSEClient(lb,
+                    IClientConfig.Builder.newBuilder().withDefaultValues().build());
+            client.setReconnectDelay(10, TimeUnit.MILLISECONDS);
+
+            List<String> data = Observable.merge(client.observeEvents("/stream").take(3), client.observeEvents("/stream").take(3))
+                    .map(new Func1<ServerSentEvent, String>() {
+                        @Override
+                        public String call(ServerSentEvent event) {
+                            return event.getEventData();
+                        }
+                    })
+                    .toList()
+                    .toBlocking()
+                    .single();
+
+            assertEquals(6, data.size());
+            // one upstream connection shared by both subscribers, plus one resume
+            assertEquals(2, server.getRequestCount());
+            RecordedRequest first = server.takeRequest();
+            assertNull(first.getHeader(SSEClient.LAST_EVENT_ID_HEADER));
+            RecordedRequest resumed = server.takeRequest();
+            assertEquals("2", resumed.getHeader(SSEClient.LAST_EVENT_ID_HEADER));
+            assertEquals(0, client.getSharedStreamCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testClientErrorStopsReconnecting() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.play();
+        try {
+            BaseLoadBalancer lb = new BaseLoadBalancer();
+            lb.setServersList(Lists.newArrayList(new Server("localhost", server.getPort())));
+            SSEClient<ByteBuf> client = (SSEClient<ByteBuf>) RibbonTransport.newSSEClient(lb,
+                    IClientConfig.Builder.newBuilder().withDefaultValues().build());
+            client.setReconnectDelay(10, TimeUnit.MILLISECONDS);
+            try {
+                client.observeEvents("/stream").toBlocking().last();
+                fail("UnexpectedHttpResponseException expected");
+            } catch (RuntimeException e) {
+                assertTrue(e.getCause() instanceof UnexpectedHttpResponseException);
+                assertEquals(404, ((UnexpectedHttpResponseException) e.getCause()).getStatusCode());
+            }
+            assertEquals(1, server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testGivesUpAfterMaxReconnectAttempts() throws Exception {
+        MockWebServer server = new MockWebServer();
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(eventStream(""));
+        }
+        server.play();
+        try {
+            BaseLoadBalancer lb = new BaseLoadBalancer();
+            lb.setServersList(Lists.newArrayList(new Server("localhost", server.getPort())));
+            IClientConfig config = IClientConfig.Builder.newBuilder().withDefaultValues().build();
+            config.set(CommonClientConfigKey.SSEMaxReconnectAttempts, 2);
+            SSEClient<ByteBuf> client = (SSEClient<ByteBuf>) RibbonTransport.newSSEClient(lb, config);
+            client.setReconnectDelay(10, TimeUnit.MILLISECONDS);
+            try {
+                client.observeEvents("/stream").toBlocking().last();
+                fail("ClientException expected");
+            } catch (RuntimeException e) {
+                assertTrue(e.getCause() instanceof ClientException);
+                assertEquals(ClientException.ErrorType.NUMBEROF_RETRIES_NEXTSERVER_EXCEEDED, ((ClientException) e.getCause()).getErrorType());
+            }
+            // first connection and two reconnects
+            assertEquals(3, server.getRequestCount());
+            assertEquals(0, client.getSharedStreamCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+}
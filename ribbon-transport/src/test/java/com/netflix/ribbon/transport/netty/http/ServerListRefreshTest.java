@@ -24,15 +24,32 @@ import com.google.mockwebserver.MockWebServer;
 import com.netflix.ribbon.transport.netty.RibbonTransport;
 import com.netflix.loadbalancer.BaseLoadBalancer;
 import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import com.netflix.ribbon.testutils.TestUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.protocol.http.client.HttpClient;
 import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
 import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Created by awang on 8/4/14.
@@ -82,4 +99,100 @@ public class ServerListRefreshTest {
             server3.shutdown();
         }
     }
+
+    /**
+     * A server removed while requests are in flight keeps its client until they complete, and gets the same
+     * client back if it is re-added in the meantime.
+     */
+    @Test
+    public void testRemovedServerIsDrained() throws Exception {
+        // answers "/slow" after a delay so that the request is still in flight when the server is removed
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    if (exchange.getRequestURI().getPath().startsWith("/slow")) {
+                        Thread.sleep(500);
+                    }
+                    byte[] body = "Hello world".getBytes("UTF-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        httpServer.setExecutor(Executors.newCachedThreadPool());
+        httpServer.start();
+        try {
+            BaseLoadBalancer lb = new BaseLoadBalancer();
+            Server server = new Server("localhost", httpServer.getAddress().getPort());
+            lb.setServersList(Lists.newArrayList(server));
+            final LoadBalancingHttpClient<ByteBuf, ByteBuf> client = RibbonTransport.newHttpClient(lb);
+            HttpClientRequest<ByteBuf> request = HttpClientRequest.createGet("/");
+            assertEquals("Hello world", getContent(client.submit(request)).toBlocking().single());
+            HttpClient<ByteBuf, ByteBuf> rxClient = client.getRxClients().get(server);
+
+            // drain and revive, the timer of this drain must not shut down the client later on
+            ServerStats stats = client.getServerStats(server);
+            stats.incrementActiveRequestsCount();
+            lb.setServersList(Lists.newArrayList(new Server("localhost", 99999)));
+            assertFalse(client.getRxClients().containsKey(server));
+            assertSame(rxClient, client.getDrainingRxClients().get(server));
+
+            lb.setServersList(Lists.newArrayList(server));
+            assertEquals("Hello world", getContent(client.submit(request)).toBlocking().single());
+            assertSame(rxClient, client.getRxClients().get(server));
+            assertTrue(client.getDrainingRxClients().isEmpty());
+            stats.decrementActiveRequestsCount();
+
+            // drain again while a request is in flight
+            Observable<String> inFlight = getContent(client.submit(HttpClientRequest.<ByteBuf>createGet("/slow"))).cache();
+            inFlight.subscribe();
+            waitUntilActiveRequests(stats, 1);
+            lb.setServersList(Lists.newArrayList(new Server("localhost", 99999)));
+            assertSame(rxClient, client.getDrainingRxClients().get(server));
+
+            assertEquals("Hello world", inFlight.toBlocking().single());
+            TestUtils.waitUntilTrueOrTimeout(2000, new Func0<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return client.getDrainingRxClients().isEmpty();
+                }
+            });
+            try {
+                rxClient.submit(request).toBlocking().last();
+                fail("Drained client should have been shut down");
+            } catch (IllegalStateException e) { // NOPMD
+            }
+        } finally {
+            httpServer.stop(0);
+        }
+    }
+
+    private static void waitUntilActiveRequests(final ServerStats stats, final int count) {
+        TestUtils.waitUntilTrueOrTimeout(2000, new Func0<Boolean>() {
+            @Override
+            public Boolean call() {
+                return stats.getActiveRequestsCount() == count;
+            }
+        });
+    }
+
+    private static Observable<String> getContent(Observable<HttpClientResponse<ByteBuf>> response) {
+        return response.flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<ByteBuf>>() {
+            @Override
+            public Observable<ByteBuf> call(HttpClientResponse<ByteBuf> r) {
+                return r.getContent();
+            }
+        }).map(new Func1<ByteBuf, String>() {
+            @Override
+            public String call(ByteBuf content) {
+                return content.toString(Charset.forName("UTF-8"));
+            }
+        });
+    }
 }
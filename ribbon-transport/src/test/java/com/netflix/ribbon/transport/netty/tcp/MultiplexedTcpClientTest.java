@@ -0,0 +1,211 @@
+/*
+ *
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.ribbon.transport.netty.tcp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ConnectionHandler;
+import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.server.RxServer;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.FuncN;
+
+import com.google.common.collect.Lists;
+import com.netflix.client.ClientException;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.ribbon.transport.netty.RibbonTransport;
+
+public class MultiplexedTcpClientTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private RxServer<MultiplexedFrame, MultiplexedFrame> server;
+    private Server host;
+
+    /**
+     * Echoes every frame back with its correlation id. Frames whose payload starts with "slow" are answered after
+     * a delay, so responses are sent out of order.
+     */
+    @Before
+    public void startEchoServer() {
+        server = RxNetty.createTcpServer(0, new MultiplexedFramePipelineConfigurator(1024 * 1024),
+                new ConnectionHandler<MultiplexedFrame, MultiplexedFrame>() {
+                    @Override
+                    public Observable<Void> handle(final ObservableConnection<MultiplexedFrame, MultiplexedFrame> connection) {
+                        acceptedConnections.incrementAndGet();
+                        return connection.getInput().flatMap(new Func1<MultiplexedFrame, Observable<Void>>() {
+                            @Override
+                            public Observable<Void> call(final MultiplexedFrame frame) {
+                                long delay = frame.getPayload().toString(UTF8).startsWith("slow") ? 200 : 0;
+                                return Observable.timer(delay, TimeUnit.MILLISECONDS).flatMap(new Func1<Long, Observable<Void>>() {
+                                    @Override
+                                    public Observable<Void> call(Long tick) {
+                                        return connection.writeAndFlush(frame);
+                                    }
+                                });
+                            }
+                        });
+                    }
+                }).start();
+        host = new Server("localhost", server.getServerPort());
+    }
+
+    @After
+    public void stopEchoServer() throws InterruptedException {
+        server.shutdown();
+    }
+
+    private LoadBalancingMultiplexedTcpClient createClient(int connectionsPerServer, int maxInFlight) {
+        IClientConfig config = DefaultClientConfigImpl.getClientConfigWithDefaultValues()
+                .set(CommonClientConfigKey.MultiplexedConnectionsPerServer, connectionsPerServer)
+                .set(CommonClientConfigKey.MaxInFlightRequestsPerConnection, maxInFlight);
+        BaseLoadBalancer lb = new BaseLoadBalancer();
+        lb.setServersList(Lists.newArrayList(host));
+        return RibbonTransport.newMultiplexedTcpClient(lb, config);
+    }
+
+    private static ByteBuf payload(String content) {
+        return Unpooled.copiedBuffer(content, UTF8);
+    }
+
+    private static Observable<String> asString(Observable<ByteBuf> response) {
+        return response.map(new Func1<ByteBuf, String>() {
+            @Override
+            public String call(ByteBuf buf) {
+                return buf.toString(UTF8);
+            }
+        });
+    }
+
+    @Test
+    public void testResponsesAreMatchedToRequests() throws Exception {
+        LoadBalancingMultiplexedTcpClient client = createClient(1, 100);
+        try {
+            List<Observable<String>> responses = new ArrayList<Observable<String>>();
+            List<String> expected = new ArrayList<String>();
+            for (int i = 0; i < 50; i++) {
+                String content = (i % 2 == 0 ? "slow-" : "fast-") + i;
+                expected.add(content);
+                responses.add(asString(client.submit(payload(content))));
+            }
+            // zip keeps the order of the requests while the server answers the fast ones first
+            List<String> actual = Observable.zip(responses, new FuncN<List<String>>() {
+                @Override
+                public List<String> call(Object... args) {
+                    List<String> result = new ArrayList<String>();
+                    for (Object arg : args) {
+                        result.add((String) arg);
+                    }
+                    return result;
+                }
+            }).toBlocking().single();
+            assertEquals(expected, actual);
+            // all requests share a single connection
+            assertEquals(1, acceptedConnections.get());
+            assertEquals(1, client.getOpenConnectionCount(host));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testConnectionsAreReused() throws Exception {
+        LoadBalancingMultiplexedTcpClient client = createClient(2, 100);
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertEquals("hello" + i, asString(client.submit(payload("hello" + i))).toBlocking().single());
+            }
+            assertEquals(2, acceptedConnections.get());
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testMaxInFlightPerConnection() throws Exception {
+        LoadBalancingMultiplexedTcpClient client = createClient(1, 1);
+        try {
+            Observable<String> first = asString(client.submit(payload("slow-1"))).cache();
+            first.subscribe();
+            try {
+                asString(client.submit(payload("fast-2"))).toBlocking().single();
+                fail("Exception expected");
+            } catch (Exception e) {
+                assertTrue(e.getCause() instanceof ClientException);
+                assertEquals(ClientException.ErrorType.CLIENT_THROTTLED, ((ClientException) e.getCause()).getErrorType());
+            }
+            assertEquals("slow-1", first.toBlocking().single());
+            // the slot is available again once the first response has arrived
+            assertEquals("fast-3", asString(client.submit(payload("fast-3"))).toBlocking().single());
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testRemovedServerConnectionsAreClosed() throws Exception {
+        LoadBalancingMultiplexedTcpClient client = createClient(1, 100);
+        try {
+            assertEquals("hello", asString(client.submit(payload("hello"))).toBlocking().single());
+            assertEquals(1, client.getOpenConnectionCount(host));
+            ((BaseLoadBalancer) client.getLoadBalancerContext().getLoadBalancer()).setServersList(new ArrayList<Server>());
+            assertEquals(0, client.getOpenConnectionCount(host));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testPayloadIsReleasedWhenWriteFails() throws Exception {
+        ObservableConnection<MultiplexedFrame, MultiplexedFrame> connection = RxNetty.createTcpClient(
+                host.getHost(), host.getPort(), new MultiplexedFramePipelineConfigurator(1024 * 1024))
+                .connect().toBlocking().single();
+        connection.getChannel().close().sync();
+        ByteBuf payload = payload("hello");
+        try {
+            LoadBalancingMultiplexedTcpClient.writeFrame(connection, 1, payload).toBlocking().lastOrDefault(null);
+            fail("Exception expected");
+        } catch (Exception e) { // NOPMD
+        }
+        // the frame's reference is released while the caller's own reference is untouched
+        assertEquals(1, payload.refCnt());
+        payload.release();
+    }
+}
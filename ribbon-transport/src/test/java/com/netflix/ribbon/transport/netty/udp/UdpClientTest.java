@@ -19,6 +19,7 @@
 package com.netflix.ribbon.transport.netty.udp;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.netflix.client.config.DefaultClientConfigImpl;
 import com.netflix.ribbon.transport.netty.MyUDPClient;
 import com.netflix.ribbon.transport.netty.RibbonTransport;
@@ -114,4 +115,92 @@ public class UdpClientTest {
         }
     }
 
+    private static final Func1<DatagramPacket, Boolean> ANY_RESPONSE = new Func1<DatagramPacket, Boolean>() {
+        @Override
+        public Boolean call(DatagramPacket datagramPacket) {
+            return true;
+        }
+    };
+
+    private static final Func1<DatagramPacket, String> CONTENT = new Func1<DatagramPacket, String>() {
+        @Override
+        public String call(DatagramPacket datagramPacket) {
+            return datagramPacket.content().toString(Charset.defaultCharset());
+        }
+    };
+
+    @Test
+    public void testSubmitReusesChannel() throws Exception {
+        int port = choosePort();
+        UdpServer<DatagramPacket, DatagramPacket> server = new HelloUdpServer(port, 0).createServer();
+        server.start();
+        BaseLoadBalancer lb = new BaseLoadBalancer();
+        Server myServer = new Server("localhost", port);
+        lb.setServersList(Lists.newArrayList(myServer));
+        LoadBalancingUdpClient<DatagramPacket, DatagramPacket> client = (LoadBalancingUdpClient<DatagramPacket, DatagramPacket>)
+                RibbonTransport.newUdpClient(lb, DefaultClientConfigImpl.getClientConfigWithDefaultValues());
+        try {
+            for (int i = 0; i < 3; i++) {
+                String response = client.submit("Is there anybody out there?".getBytes(), ANY_RESPONSE)
+                        .map(CONTENT)
+                        .toBlocking()
+                        .single();
+                assertEquals(HelloUdpServer.WELCOME_MSG, response);
+            }
+            assertEquals(Sets.newHashSet(myServer), client.getPooledServers());
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testScatterFirstResponseWins() throws Exception {
+        int slowPort = choosePort();
+        int fastPort = choosePort();
+        UdpServer<DatagramPacket, DatagramPacket> slowServer = new HelloUdpServer(slowPort, 5000).createServer();
+        UdpServer<DatagramPacket, DatagramPacket> fastServer = new HelloUdpServer(fastPort, 0).createServer();
+        slowServer.start();
+        fastServer.start();
+        BaseLoadBalancer lb = new BaseLoadBalancer();
+        lb.setServersList(Lists.newArrayList(new Server("localhost", slowPort), new Server("localhost", fastPort)));
+        LoadBalancingUdpClient<DatagramPacket, DatagramPacket> client = (LoadBalancingUdpClient<DatagramPacket, DatagramPacket>)
+                RibbonTransport.newUdpClient(lb, DefaultClientConfigImpl.getClientConfigWithDefaultValues());
+        try {
+            long start = System.currentTimeMillis();
+            String response = client.scatter("Is there anybody out there?".getBytes(), 2, ANY_RESPONSE, 2000)
+                    .map(CONTENT)
+                    .toBlocking()
+                    .single();
+            assertEquals(HelloUdpServer.WELCOME_MSG, response);
+            assertTrue(System.currentTimeMillis() - start < 2000);
+            assertEquals(2, client.getPooledServers().size());
+        } finally {
+            client.shutdown();
+            slowServer.shutdown();
+            fastServer.shutdown();
+        }
+    }
+
+    @Test
+    public void testScatterTimeout() throws Exception {
+        int port = choosePort();
+        UdpServer<DatagramPacket, DatagramPacket> server = new HelloUdpServer(port, 5000).createServer();
+        server.start();
+        BaseLoadBalancer lb = new BaseLoadBalancer();
+        lb.setServersList(Lists.newArrayList(new Server("localhost", port)));
+        LoadBalancingUdpClient<DatagramPacket, DatagramPacket> client = (LoadBalancingUdpClient<DatagramPacket, DatagramPacket>)
+                RibbonTransport.newUdpClient(lb, DefaultClientConfigImpl.getClientConfigWithDefaultValues());
+        try {
+            client.scatter("Is there anybody out there?".getBytes(), 2, ANY_RESPONSE, 100)
+                    .toBlocking()
+                    .single();
+            fail("Exception expected");
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
 }